@@ -0,0 +1,34 @@
+package ca.lavoiedn;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of the DLX engine and of the sudoku solver, with the
+ * allocation rate of each benchmark reported by the GC profiler.
+ * 
+ * @author lavoiedn
+ */
+
+public class Benchmarks {
+
+	/**
+	 * Runs the benchmarks matching the given JMH options, or all of them.
+	 * 
+	 * @param args
+	 *            The JMH command line options, such as a benchmark regex.
+	 * @throws RunnerException
+	 *             If a benchmark fails.
+	 * @throws CommandLineOptionException
+	 *             If the options cannot be parsed.
+	 */
+	public static void main(String[] args) throws RunnerException,
+			CommandLineOptionException {
+		new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,138 @@
+package ca.lavoiedn.DLX;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.lavoiedn.Sudoku.SudokuAction;
+import ca.lavoiedn.Sudoku.SudokuBenchmark;
+import ca.lavoiedn.Sudoku.SudokuBoard;
+import ca.lavoiedn.Sudoku.SudokuParser;
+
+/**
+ * Microbenchmarks of the primitives of the
+ * {@link ca.lavoiedn.DLX.DancingLinksSearch}, on the sparse matrix of a sudoku
+ * board.
+ * 
+ * Both run on the matrix of a hard board with its clues applied.
+ * <code>coverAndUncover</code> selects then deselects every other row of its
+ * solution, which covers and uncovers each remaining column once through
+ * <code>explore</code> and <code>backtrack</code>, and leaves the matrix as it
+ * was. <code>selectColumn</code> asks the column selection strategy for the
+ * next column to search.
+ * 
+ * @author lavoiedn
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DancingLinksBenchmark {
+
+	@Param({ "minimum", "failure", "bucket" })
+	public String strategy;
+
+	private DancingLinksSearch search;
+	private DancingLinkList matrix;
+	private ColumnSelectionStrategy columnSelection;
+	private int[] solution;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		int[] board = SudokuParser.parseBoards(
+				SudokuBenchmark.corpus("hard")).get(0);
+		SudokuBoard sudokuBoard = new SudokuBoard(board);
+		List<ExactCoverAction> actions = new DancingLinksSearch()
+				.solve(sudokuBoard);
+
+		columnSelection = newStrategy(strategy);
+		search = new DancingLinksSearch();
+		search.setColumnSelection(columnSelection);
+		search.attach(sudokuBoard, sudokuBoard.getSparseMatrix(), null);
+		search.applyInitialState();
+		matrix = search.getSparseMatrix();
+
+		// The rows of the sudoku matrix are ordered by position, then digit.
+		int[] nodes = firstNodes(matrix);
+		int[] rows = new int[actions.size()];
+		int count = 0;
+		for (ExactCoverAction action : actions) {
+			SudokuAction sudokuAction = (SudokuAction) action;
+			if (board[sudokuAction.getPos()] == 0) {
+				rows[count++] = nodes[sudokuAction.getPos() * 9
+						+ sudokuAction.getValue() - 1];
+			}
+		}
+		solution = Arrays.copyOf(rows, count);
+	}
+
+	@Benchmark
+	public int coverAndUncover() {
+		for (int row : solution) {
+			search.select(row);
+		}
+		for (int i = solution.length - 1; i >= 0; i--) {
+			search.deselect(solution[i]);
+		}
+		return matrix.getSize(1);
+	}
+
+	@Benchmark
+	public int selectColumn() {
+		return columnSelection.select(matrix);
+	}
+
+	/**
+	 * Returns the strategy of the given name.
+	 * 
+	 * @param name
+	 *            The name of the strategy.
+	 * @return A new {@link ca.lavoiedn.DLX.ColumnSelectionStrategy}.
+	 */
+	static ColumnSelectionStrategy newStrategy(String name) {
+		switch (name) {
+		case "failure":
+			return new FailureWeightedSelection();
+		case "bucket":
+			return new BucketQueueSelection();
+		default:
+			return new MinimumSizeSelection();
+		}
+	}
+
+	/**
+	 * Returns a node of every row of the given matrix, indexed by row id.
+	 * 
+	 * @param matrix
+	 *            The sparse matrix.
+	 * @return The first node found for each row.
+	 */
+	private static int[] firstNodes(DancingLinkList matrix) {
+		int[] nodes = new int[matrix.getRowCount()];
+		for (int header = 1; header <= matrix.getColumnCount(); header++) {
+			for (int node = matrix.getDown(header); node != header; node = matrix
+					.getDown(node)) {
+				if (nodes[matrix.getRow(node)] == 0) {
+					nodes[matrix.getRow(node)] = node;
+				}
+			}
+		}
+		return nodes;
+	}
+}
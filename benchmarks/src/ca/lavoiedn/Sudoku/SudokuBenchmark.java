@@ -0,0 +1,127 @@
+package ca.lavoiedn.Sudoku;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.lavoiedn.DLX.DancingLinkList;
+import ca.lavoiedn.DLX.DancingLinksSearch;
+import ca.lavoiedn.DLX.ExactCoverAction;
+
+/**
+ * End-to-end benchmarks of the sudoku solver, over the corpora of
+ * <code>benchmarks/corpora</code>: <code>easy</code> boards of 36 clues,
+ * <code>hard</code> minimal boards needing the most nodes, and
+ * <code>17clue</code> boards with the fewest clues of a unique solution.
+ * 
+ * <code>solveBoard</code> solves the boards of the corpus one per call, in
+ * turn, with a reused search and no propagation, while
+ * <code>propagateAndSolveBoard</code> fills in the singles of each board
+ * before searching what is left. <code>solveBatch</code> solves the whole corpus
+ * through a {@link ca.lavoiedn.Sudoku.SudokuBatchSolver}.
+ * <code>getSparseMatrix</code> measures the copy of the constraint matrix that
+ * starts every solve.
+ * 
+ * @author lavoiedn
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SudokuBenchmark {
+
+	/**
+	 * The directory of the corpora, relative to the working directory unless
+	 * set with <code>-Dsudoku.corpora=...</code>.
+	 */
+	private static final String CORPORA = System.getProperty("sudoku.corpora",
+			"benchmarks/corpora");
+
+	@Param({ "easy", "hard", "17clue" })
+	public String corpus;
+
+	private List<int[]> boards;
+	private int next;
+	private DancingLinksSearch search;
+	private SudokuBatchSolver batchSolver;
+	private SudokuBoard emptyBoard;
+
+	/**
+	 * Returns the path of the corpus of the given name.
+	 * 
+	 * @param name
+	 *            The name of the corpus.
+	 * @return The path of its file.
+	 */
+	public static String corpus(String name) {
+		return CORPORA + "/" + name + ".txt";
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		boards = SudokuParser.parseBoards(corpus(corpus));
+		if (boards.isEmpty()) {
+			throw new IllegalStateException("No boards in " + corpus(corpus)
+					+ ".");
+		}
+		search = new DancingLinksSearch();
+		batchSolver = new SudokuBatchSolver();
+		emptyBoard = new SudokuBoard(new int[81]);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		batchSolver.shutdown();
+	}
+
+	@Benchmark
+	public List<ExactCoverAction> solveBoard() {
+		int[] board = boards.get(next);
+		next = (next + 1) % boards.size();
+		return search.solve(new SudokuBoard(board));
+	}
+
+	@Benchmark
+	public SudokuResult propagateAndSolveBoard() {
+		int index = next;
+		next = (next + 1) % boards.size();
+		return SudokuBatchSolver.solve(search, index, boards.get(index));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public long solveBatch() throws InterruptedException {
+		final long[] solved = new long[1];
+		batchSolver.solve(boards, new SudokuResultListener() {
+			@Override
+			public void boardSolved(SudokuResult result) {
+				if (result.isSolved()) {
+					solved[0]++;
+				}
+			}
+		});
+		return solved[0];
+	}
+
+	@Benchmark
+	public DancingLinkList getSparseMatrix() {
+		return emptyBoard.getSparseMatrix();
+	}
+}
@@ -0,0 +1,118 @@
+package ca.lavoiedn.DLX.jfr;
+
+import ca.lavoiedn.DLX.ExactCoverProblem;
+import ca.lavoiedn.DLX.SearchMetrics;
+import ca.lavoiedn.DLX.SearchRecorder;
+import ca.lavoiedn.DLX.SearchStatus;
+
+/**
+ * A {@link ca.lavoiedn.DLX.SearchRecorder} emitting flight recorder events:
+ * a {@link ca.lavoiedn.DLX.jfr.SolveEvent} for every solve, and a
+ * {@link ca.lavoiedn.DLX.jfr.PhaseEvent} for its phases when that event is
+ * enabled. While no recording is running, the events are neither filled nor
+ * committed.
+ * 
+ * It is found by <code>java.util.ServiceLoader</code> whenever this package
+ * is on the class path.
+ * 
+ * @author lavoiedn
+ */
+
+public class JfrSearchRecorder implements SearchRecorder {
+
+	// Instances used to check whether their event type is enabled.
+	private final SolveEvent solveProbe = new SolveEvent();
+	private final PhaseEvent phaseProbe = new PhaseEvent();
+
+	private SolveEvent solve;
+	private PhaseEvent phase;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see ca.lavoiedn.DLX.SearchRecorder#solveStarted()
+	 */
+	@Override
+	public void solveStarted() {
+		if (solveProbe.isEnabled()) {
+			solve = new SolveEvent();
+			solve.begin();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * ca.lavoiedn.DLX.SearchRecorder#phaseStarted(ca.lavoiedn.DLX.SearchMetrics
+	 * .Phase)
+	 */
+	@Override
+	public void phaseStarted(SearchMetrics.Phase phase) {
+		if (phaseProbe.isEnabled()) {
+			this.phase = new PhaseEvent();
+			this.phase.begin();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * ca.lavoiedn.DLX.SearchRecorder#phaseEnded(ca.lavoiedn.DLX.SearchMetrics
+	 * .Phase)
+	 */
+	@Override
+	public void phaseEnded(SearchMetrics.Phase phase) {
+		PhaseEvent event = this.phase;
+		if (event == null) {
+			return;
+		}
+		this.phase = null;
+		event.end();
+		if (event.shouldCommit()) {
+			event.phase = phase.name();
+			event.commit();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * ca.lavoiedn.DLX.SearchRecorder#solveEnded(ca.lavoiedn.DLX.ExactCoverProblem
+	 * , ca.lavoiedn.DLX.SearchMetrics, ca.lavoiedn.DLX.SearchStatus)
+	 */
+	@Override
+	public void solveEnded(ExactCoverProblem problem, SearchMetrics metrics,
+			SearchStatus status) {
+		SolveEvent event = solve;
+		if (event == null) {
+			return;
+		}
+		solve = null;
+		event.end();
+		if (event.shouldCommit()) {
+			event.problem = problem.getClass().getName();
+			event.matrixSize = metrics.getMatrixSize();
+			event.initialConstraints = metrics.getInitialConstraints();
+			event.nodesExplored = metrics.getNodesExplored();
+			event.updates = metrics.getUpdates();
+			event.maxDepth = metrics.getMaxDepth();
+			event.solutions = metrics.getSolutionsFound();
+			event.status = status.name();
+			event.allocatedBytes = metrics.getAllocatedBytes();
+			event.commit();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see ca.lavoiedn.DLX.SearchRecorder#copy()
+	 */
+	@Override
+	public JfrSearchRecorder copy() {
+		return new JfrSearchRecorder();
+	}
+}
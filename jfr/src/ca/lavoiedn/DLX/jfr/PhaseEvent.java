@@ -0,0 +1,32 @@
+package ca.lavoiedn.DLX.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A flight recorder event for a phase of a solve: building the matrix,
+ * exploring the initial state or verifying a solution. It is disabled by
+ * default, since an enumeration verifies every solution; enable it with a
+ * threshold to only record the slow ones.
+ * 
+ * @author lavoiedn
+ */
+
+@Name("ca.lavoiedn.dlx.Phase")
+@Label("DLX Phase")
+@Category("DLX")
+@Description("A phase of a solve of an exact cover problem")
+@Enabled(false)
+@Threshold("1 ms")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+
+	@Label("Phase")
+	public String phase;
+}
@@ -0,0 +1,54 @@
+package ca.lavoiedn.DLX.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event for one solve of a
+ * {@link ca.lavoiedn.DLX.DancingLinksSearch}, lasting from the start of the
+ * solve to its end.
+ * 
+ * @author lavoiedn
+ */
+
+@Name("ca.lavoiedn.dlx.Solve")
+@Label("DLX Solve")
+@Category("DLX")
+@Description("A solve of an exact cover problem")
+@StackTrace(false)
+public class SolveEvent extends Event {
+
+	@Label("Problem")
+	public String problem;
+
+	@Label("Matrix Size")
+	@Description("Headers and nodes of the primary columns, after the initial state")
+	public long matrixSize;
+
+	@Label("Initial Constraints")
+	public long initialConstraints;
+
+	@Label("Nodes Explored")
+	public long nodesExplored;
+
+	@Label("Updates")
+	public long updates;
+
+	@Label("Maximum Depth")
+	public int maxDepth;
+
+	@Label("Solutions Found")
+	public long solutions;
+
+	@Label("Status")
+	public String status;
+
+	@Label("Allocated")
+	@DataAmount
+	public long allocatedBytes;
+}
@@ -0,0 +1,175 @@
+package ca.lavoiedn.DLX;
+
+import java.util.Arrays;
+
+/**
+ * Selects a column with the smallest amount of rows associated to it, like
+ * {@link ca.lavoiedn.DLX.MinimumSizeSelection}, without scanning every column
+ * at each step of the search.
+ * 
+ * The uncovered primary columns are kept in buckets, one doubly linked list
+ * per column size. The {@link ca.lavoiedn.DLX.DancingLinksSearch} moves a
+ * column to its new bucket every time it changes the column's size, and
+ * removes it from the buckets while it is covered, which costs a constant
+ * amount of work per update. Finding the smallest column then only requires
+ * skipping the empty buckets above the last known minimum. Columns of the same
+ * size are not returned in any particular order.
+ * 
+ * @author lavoiedn
+ */
+public class BucketQueueSelection implements ColumnSelectionStrategy {
+
+	private static final int NONE = -1;
+
+	private int[] size;
+	private int[] first;
+	private int[] next;
+	private int[] prev;
+	private boolean[] queued;
+	private int minimum;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * ca.lavoiedn.DLX.ColumnSelectionStrategy#attach(ca.lavoiedn.DLX.DancingLinkList
+	 * )
+	 */
+	@Override
+	public void attach(DancingLinkList matrix) {
+		size = matrix.size;
+		int columns = matrix.getColumnCount() + 1;
+		next = new int[columns];
+		prev = new int[columns];
+		queued = new boolean[columns];
+
+		// Sizes only shrink from here on, so the current largest size bounds
+		// the buckets.
+		int largest = 0;
+		int head = matrix.getHead();
+		for (int header = matrix.right[head]; header != head; header = matrix.right[header]) {
+			largest = Math.max(largest, size[header]);
+		}
+		first = new int[largest + 1];
+		Arrays.fill(first, NONE);
+		minimum = 0;
+
+		for (int header = matrix.right[head]; header != head; header = matrix.right[header]) {
+			insert(header);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * ca.lavoiedn.DLX.ColumnSelectionStrategy#select(ca.lavoiedn.DLX.DancingLinkList
+	 * )
+	 */
+	@Override
+	public int select(DancingLinkList matrix) {
+		while (minimum < first.length && first[minimum] == NONE) {
+			minimum++;
+		}
+		return minimum < first.length ? first[minimum] : matrix.getHead();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see ca.lavoiedn.DLX.ColumnSelectionStrategy#failed(int)
+	 */
+	@Override
+	public void failed(int header) {
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see ca.lavoiedn.DLX.ColumnSelectionStrategy#copy()
+	 */
+	@Override
+	public BucketQueueSelection copy() {
+		return new BucketQueueSelection();
+	}
+
+	/**
+	 * Adds an uncovered column to the bucket of its size.
+	 * 
+	 * @param header
+	 *            The header of the column.
+	 */
+	void insert(int header) {
+		int bucket = size[header];
+		link(header, bucket);
+		queued[header] = true;
+		if (bucket < minimum) {
+			minimum = bucket;
+		}
+	}
+
+	/**
+	 * Removes a covered column from its bucket.
+	 * 
+	 * @param header
+	 *            The header of the column.
+	 */
+	void remove(int header) {
+		if (queued[header]) {
+			unlink(header, size[header]);
+			queued[header] = false;
+		}
+	}
+
+	/**
+	 * Moves a column whose size was just decreased by one.
+	 * 
+	 * @param header
+	 *            The header of the column.
+	 */
+	void decreased(int header) {
+		if (queued[header]) {
+			int bucket = size[header];
+			unlink(header, bucket + 1);
+			link(header, bucket);
+			if (bucket < minimum) {
+				minimum = bucket;
+			}
+		}
+	}
+
+	/**
+	 * Moves a column whose size was just increased by one.
+	 * 
+	 * @param header
+	 *            The header of the column.
+	 */
+	void increased(int header) {
+		if (queued[header]) {
+			int bucket = size[header];
+			unlink(header, bucket - 1);
+			link(header, bucket);
+		}
+	}
+
+	private void link(int header, int bucket) {
+		int head = first[bucket];
+		prev[header] = NONE;
+		next[header] = head;
+		if (head != NONE) {
+			prev[head] = header;
+		}
+		first[bucket] = header;
+	}
+
+	private void unlink(int header, int bucket) {
+		if (prev[header] == NONE) {
+			first[bucket] = next[header];
+		} else {
+			next[prev[header]] = next[header];
+		}
+		if (next[header] != NONE) {
+			prev[next[header]] = prev[header];
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package ca.lavoiedn.DLX;
+
+/**
+ * Lets another thread stop a running {@link ca.lavoiedn.DLX.DancingLinksSearch}.
+ * The search polls the token along with its other limits, so it stops shortly
+ * after <code>cancel</code> is called, leaving its matrix restored.
+ * 
+ * @author lavoiedn
+ */
+public class CancellationToken {
+
+	private volatile boolean cancelled;
+
+	/**
+	 * Asks the searches using this token to stop.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Returns whether or not this token was cancelled.
+	 * 
+	 * @return <code>true</code> if <code>cancel</code> was called, else
+	 *         <code>false</code>.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
@@ -0,0 +1,45 @@
+package ca.lavoiedn.DLX;
+
+/**
+ * Chooses the column a {@link ca.lavoiedn.DLX.DancingLinksSearch} branches on
+ * at each step of the search.
+ * 
+ * @author lavoiedn
+ */
+public interface ColumnSelectionStrategy {
+
+	/**
+	 * Prepares this strategy for a search of the given matrix.
+	 * 
+	 * @param matrix
+	 *            The sparse matrix about to be searched.
+	 */
+	void attach(DancingLinkList matrix);
+
+	/**
+	 * Returns the primary column to branch on.
+	 * 
+	 * @param matrix
+	 *            The sparse matrix being searched.
+	 * @return The header of the chosen column, or the head of the matrix if
+	 *         every primary column is covered.
+	 */
+	int select(DancingLinkList matrix);
+
+	/**
+	 * Called when the column returned by <code>select</code> has no row left,
+	 * which ends the current branch of the search.
+	 * 
+	 * @param header
+	 *            The header of the column.
+	 */
+	void failed(int header);
+
+	/**
+	 * Returns a strategy with the same settings as this one, but none of its
+	 * state, for use by another search.
+	 * 
+	 * @return A new strategy with the same settings.
+	 */
+	ColumnSelectionStrategy copy();
+}
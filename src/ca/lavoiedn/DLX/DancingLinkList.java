@@ -1,102 +1,456 @@
 package ca.lavoiedn.DLX;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
-import ca.lavoiedn.ToroidalList.ColumnNode;
-import ca.lavoiedn.ToroidalList.ToroidalNode;
-
 /**
  * Doubly linked circular list implementation.
  * 
+ * The whole toroid lives in parallel <code>int</code> arrays rather than in
+ * one object per cell. A node is an index into these arrays: index
+ * <code>0</code> is the head, the column headers follow it, and the row nodes
+ * are appended after the last column. Column sizes and names are kept in their
+ * own arrays, indexed by the column header, and an index maps every column
+ * key to its header. Every row node also knows the id of its row, which is
+ * the order in which the rows were built.
+ * 
+ * Columns are either primary, and must be covered exactly once, or secondary,
+ * and may be covered at most once. Only the primary columns are linked to the
+ * head; the header of a secondary column is linked to itself, so the search
+ * covers it when it selects one of its rows but never branches on it.
+ * 
+ * A node of a secondary column may also carry a color, a positive
+ * <code>int</code>. Rows that give the same color to a secondary column may
+ * share it, as in Knuth's exact covering with colors. Colors are only
+ * allocated once a colored row is added.
+ * 
+ * Problems that identify their columns by number rather than by key can
+ * declare them with <code>DancingLinkList(int)</code> and add each row as an
+ * array of column ids with <code>addRow</code>, without going through a dense
+ * matrix.
+ * 
  * @author lavoiedn
  * 
  */
 
 public class DancingLinkList {
 
-	private ColumnNode head;
+	private static final int HEAD = 0;
+	private static final int INITIAL_CAPACITY = 64;
+
+	int[] up;
+	int[] down;
+	int[] left;
+	int[] right;
+	int[] column;
+	int[] row;
+	int[] color;
+
+	int[] size;
+	private String[] names;
+	private Map<String, Integer> index;
+
+	private int columns;
+	private int rows;
+	private int nodes;
 
 	/**
 	 * Empty constructor.
 	 */
 	public DancingLinkList() {
-		head = new ColumnNode("START");
+		allocate(INITIAL_CAPACITY, INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructor for a list of columns identified by their id, from
+	 * <code>0</code> to <code>columns - 1</code>. The key of each column is its
+	 * id.
+	 * 
+	 * @param columns
+	 *            The number of columns.
+	 */
+	public DancingLinkList(int columns) {
+		this(columns, 0);
+	}
+
+	/**
+	 * Constructor for a list of columns identified by their id, from
+	 * <code>0</code> to <code>columns - 1</code>, with room for the given
+	 * number of row nodes.
+	 * 
+	 * @param columns
+	 *            The number of columns.
+	 * @param capacity
+	 *            The expected number of row nodes, which is the total number
+	 *            of non-zero cells of the rows.
+	 */
+	public DancingLinkList(int columns, int capacity) {
+		this(columns, 0, capacity);
+	}
+
+	/**
+	 * Constructor for a list of primary and secondary columns identified by
+	 * their id. The primary columns come first, from <code>0</code> to
+	 * <code>primary - 1</code>, followed by the secondary columns.
+	 * 
+	 * @param primary
+	 *            The number of primary columns.
+	 * @param secondary
+	 *            The number of secondary columns.
+	 * @param capacity
+	 *            The expected number of row nodes, which is the total number
+	 *            of non-zero cells of the rows.
+	 */
+	public DancingLinkList(int primary, int secondary, int capacity) {
+		allocate(primary + secondary + 1 + Math.max(capacity, 0), primary
+				+ secondary + 1);
+		for (int id = 0; id < primary + secondary; id++) {
+			add(Integer.toString(id), id < primary);
+		}
 	}
 
 	/**
 	 * Constructor for a list with its content. (Column)
 	 */
 	public DancingLinkList(String key) {
-		head = new ColumnNode("START");
+		this();
 		add(key);
 	}
 
 	/**
-	 * Adds a <code>ColumnNode</code> to the toroidal list.
+	 * Copy constructor. The copy has the same nodes, in the same state, as the
+	 * given list, but shares none of its arrays.
+	 * 
+	 * @param other
+	 *            The <code>DancingLinkList</code> to copy.
+	 */
+	public DancingLinkList(DancingLinkList other) {
+		up = other.up.clone();
+		down = other.down.clone();
+		left = other.left.clone();
+		right = other.right.clone();
+		column = other.column.clone();
+		row = other.row.clone();
+		color = other.color == null ? null : other.color.clone();
+		size = other.size.clone();
+		names = other.names.clone();
+		// Once a list has rows, no column can be added to it, so its copies
+		// can safely share its index.
+		index = other.nodes > other.columns + 1 ? other.index
+				: new HashMap<String, Integer>(other.index);
+		columns = other.columns;
+		rows = other.rows;
+		nodes = other.nodes;
+	}
+
+	/**
+	 * Allocates the arrays of an empty list.
+	 * 
+	 * @param capacity
+	 *            The number of nodes, including the head, the arrays can hold.
+	 * @param columnCapacity
+	 *            The number of column headers, including the head, the arrays
+	 *            can hold.
+	 */
+	private void allocate(int capacity, int columnCapacity) {
+		up = new int[capacity];
+		down = new int[capacity];
+		left = new int[capacity];
+		right = new int[capacity];
+		column = new int[capacity];
+		row = new int[capacity];
+		size = new int[columnCapacity];
+		names = new String[columnCapacity];
+		names[HEAD] = "START";
+		row[HEAD] = -1;
+		index = new HashMap<String, Integer>();
+		nodes = 1;
+	}
+
+	/**
+	 * Adds a primary column header to the toroidal list. Every column must be
+	 * added before the first row is built.
 	 * 
 	 * @param key
 	 *            The <code>String</code> key for this node.
+	 * @return The index of the new column header.
 	 */
-	public void add(String key) {
-		ColumnNode toBuild = new ColumnNode(key);
-		toBuild.setLeft(head);
+	public int add(String key) {
+		return add(key, true);
 	}
 
 	/**
+	 * Adds a column header to the toroidal list. Every column must be added
+	 * before the first row is built.
+	 * 
+	 * @param key
+	 *            The <code>String</code> key for this node.
+	 * @param primary
+	 *            <code>true</code> if the column must be covered, or
+	 *            <code>false</code> if it is a secondary column.
+	 * @return The index of the new column header.
+	 */
+	public int add(String key, boolean primary) {
+		if (nodes != columns + 1) {
+			throw new IllegalStateException(
+					"Columns must be added before the rows.");
+		}
+		int node = newNode(nodes);
+		columns++;
+		if (columns >= size.length) {
+			size = Arrays.copyOf(size, size.length * 2);
+			names = Arrays.copyOf(names, names.length * 2);
+		}
+		names[node] = key;
+		index.put(key, node);
+		size[node] = 0;
+		column[node] = node;
+		row[node] = -1;
+		up[node] = node;
+		down[node] = node;
+		if (primary) {
+			left[node] = left[HEAD];
+			right[node] = HEAD;
+			right[left[HEAD]] = node;
+			left[HEAD] = node;
+		} else {
+			left[node] = node;
+			right[node] = node;
+		}
+		return node;
+	}
+
+	/**
+	 * Builds a row from the keys of its columns. Keys that do not match any
+	 * column are ignored.
+	 * 
 	 * @param keys
 	 *            The column key of the nodes to add.
-	 * @return Returns the first node in this row.
-	 */
-	public ToroidalNode buildRow(Set<String> keys) {
-		ColumnNode currentNode = (ColumnNode) head.getRight();
-		ToroidalNode rowNode = null;
-
-		while (!keys.isEmpty() && currentNode != head) {
-			if (keys.contains(currentNode.getName())) {
-				keys.remove(currentNode.getName());
-
-				if (rowNode == null) {
-					rowNode = new ToroidalNode(currentNode, ToroidalNode.UP);
-				} else {
-					ToroidalNode toSet = new ToroidalNode(currentNode,
-							ToroidalNode.UP);
-					toSet.setLeft(rowNode);
+	 * @return Returns the first node in this row, or <code>-1</code> if none
+	 *         of the keys matched a column.
+	 */
+	public int buildRow(Set<String> keys) {
+		int[] headers = new int[keys.size()];
+		int count = 0;
+		for (String key : keys) {
+			Integer header = index.get(key);
+			if (header != null) {
+				headers[count++] = header;
+			}
+		}
+		return buildRow(headers, count, 0);
+	}
+
+	/**
+	 * Builds a row from the headers of its columns.
+	 * 
+	 * @param headers
+	 *            The column headers of the nodes to add.
+	 * @return Returns the first node in this row, or <code>-1</code> if the
+	 *         row is empty.
+	 */
+	public int buildRow(int[] headers) {
+		return buildRow(headers, headers.length, 0);
+	}
+
+	/**
+	 * Adds a row to a list built with <code>DancingLinkList(int)</code>.
+	 * 
+	 * @param ids
+	 *            The ids of the columns of this row.
+	 * @return Returns the first node in this row, or <code>-1</code> if the
+	 *         row is empty.
+	 */
+	public int addRow(int... ids) {
+		return buildRow(ids, ids.length, 1);
+	}
+
+	/**
+	 * Adds a row whose nodes may carry colors to a list built with
+	 * <code>DancingLinkList(int, int, int)</code>.
+	 * 
+	 * @param ids
+	 *            The ids of the columns of this row.
+	 * @param colors
+	 *            The color of each node of this row, or <code>0</code> for a
+	 *            node without color. Only nodes of secondary columns may have
+	 *            a color. The colors are checked along with the columns,
+	 *            before the row is linked.
+	 * @return Returns the first node in this row, or <code>-1</code> if the
+	 *         row is empty.
+	 */
+	public int addRow(int[] ids, int[] colors) {
+		if (colors.length != ids.length) {
+			throw new IllegalArgumentException(
+					"Every column of the row needs a color.");
+		}
+		for (int i = 0; i < colors.length; i++) {
+			if (colors[i] < 0) {
+				throw new IllegalArgumentException("Invalid color "
+						+ colors[i] + ".");
+			}
+			if (colors[i] != 0 && ids[i] >= 0 && ids[i] < columns
+					&& isPrimary(ids[i] + 1)) {
+				throw new IllegalArgumentException("The primary column "
+						+ ids[i] + " cannot have a color.");
+			}
+		}
+		int first = buildRow(ids, ids.length, 1);
+		for (int i = 0; i < colors.length; i++) {
+			if (colors[i] != 0) {
+				if (color == null) {
+					color = new int[up.length];
 				}
+				color[first + i] = colors[i];
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Adds every row given by the iterator to a list built with
+	 * <code>DancingLinkList(int)</code>. The rows are linked as they are read,
+	 * so the iterator may generate them on the fly and reuse its arrays.
+	 * 
+	 * @param rows
+	 *            An iterator over the column ids of each row.
+	 * @return The number of rows added.
+	 */
+	public int addRows(Iterator<int[]> rows) {
+		int count = 0;
+		while (rows.hasNext()) {
+			addRow(rows.next());
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Builds a row from the first <code>count</code> columns of the given
+	 * array. Every column is checked before the first node is linked, so a
+	 * rejected row leaves the list unchanged.
+	 * 
+	 * @param headers
+	 *            The columns of the nodes to add.
+	 * @param count
+	 *            The number of columns to use.
+	 * @param offset
+	 *            The offset between the values of the array and the column
+	 *            headers.
+	 * @return Returns the first node in this row, or <code>-1</code> if the
+	 *         row is empty.
+	 */
+	private int buildRow(int[] headers, int count, int offset) {
+		for (int i = 0; i < count; i++) {
+			int currentNode = headers[i] + offset;
+			if (currentNode <= HEAD || currentNode > columns) {
+				throw new IllegalArgumentException("No column at "
+						+ headers[i] + ".");
 			}
-			currentNode = (ColumnNode) currentNode.getRight();
+		}
+
+		int rowNode = -1;
+		for (int i = 0; i < count; i++) {
+			int currentNode = headers[i] + offset;
+			int toSet = newNode(nodes);
+			column[toSet] = currentNode;
+			row[toSet] = rows;
+			up[toSet] = up[currentNode];
+			down[toSet] = currentNode;
+			down[up[currentNode]] = toSet;
+			up[currentNode] = toSet;
+			size[currentNode]++;
+
+			if (rowNode == -1) {
+				rowNode = toSet;
+				left[toSet] = toSet;
+				right[toSet] = toSet;
+			} else {
+				left[toSet] = left[rowNode];
+				right[toSet] = rowNode;
+				right[left[rowNode]] = toSet;
+				left[rowNode] = toSet;
+			}
+		}
+		if (rowNode != -1) {
+			rows++;
 		}
 		return rowNode;
 	}
 
+	/**
+	 * Reserves the next node index, growing the arrays if required.
+	 * 
+	 * @param node
+	 *            The index of the node to reserve.
+	 * @return The reserved index.
+	 */
+	private int newNode(int node) {
+		if (node >= up.length) {
+			int capacity = up.length * 2;
+			up = Arrays.copyOf(up, capacity);
+			down = Arrays.copyOf(down, capacity);
+			left = Arrays.copyOf(left, capacity);
+			right = Arrays.copyOf(right, capacity);
+			column = Arrays.copyOf(column, capacity);
+			row = Arrays.copyOf(row, capacity);
+			if (color != null) {
+				color = Arrays.copyOf(color, capacity);
+			}
+		}
+		nodes++;
+		return node;
+	}
+
 	/**
 	 * Returns the size of this list.
 	 * 
-	 * @return The number of <code>ColumnNode</code> and of
-	 *         <code>ToroidalNode</code> in this list, in an array and in this
-	 *         order.
+	 * @return The number of primary column headers and of their row nodes in
+	 *         this list, in an array and in this order.
 	 */
 	public int[] size() {
 		int[] size = new int[2];
-		ToroidalNode searchX = head.getRight();
-		while (searchX != head) {
+		int searchX = right[HEAD];
+		while (searchX != HEAD) {
 			size[0]++;
-			ToroidalNode searchY = searchX.getDown();
+			int searchY = down[searchX];
 			while (searchY != searchX) {
-				searchY = searchY.getDown();
+				searchY = down[searchY];
 				size[1]++;
 			}
-			searchX = searchX.getRight();
+			searchX = right[searchX];
 		}
 		return size;
 	}
 
+	/**
+	 * Returns the number of columns in this list.
+	 * 
+	 * @return The number of column headers in this list.
+	 */
+	public int getColumnCount() {
+		return columns;
+	}
+
+	/**
+	 * Returns the number of rows in this list.
+	 * 
+	 * @return The number of rows built in this list.
+	 */
+	public int getRowCount() {
+		return rows;
+	}
+
 	/**
 	 * Returns the next column header node.
 	 * 
 	 * @return The next column header node.
 	 */
-	public ToroidalNode next() {
-		return head.getRight();
+	public int next() {
+		return right[HEAD];
 	}
 
 	/**
@@ -104,8 +458,8 @@ public class DancingLinkList {
 	 * 
 	 * @return The previous column header node.
 	 */
-	public ToroidalNode prev() {
-		return head.getLeft();
+	public int prev() {
+		return left[HEAD];
 	}
 
 	/**
@@ -113,19 +467,12 @@ public class DancingLinkList {
 	 * 
 	 * @param key
 	 *            The key of a column node.
-	 * @return Returns the <code>ColumnNode</code> with the corresponding key.
-	 */
-	public ColumnNode getCol(String key) {
-		ColumnNode start = head;
-		ToroidalNode check = head.getRight();
-		ColumnNode target = null;
-		while (target == null && check != start) {
-			if (((ColumnNode) check).getName().equals(key)) {
-				target = (ColumnNode) check;
-			}
-			check = check.getRight();
-		}
-		return target;
+	 * @return Returns the column header with the corresponding key, or
+	 *         <code>-1</code> if there is none.
+	 */
+	public int getCol(String key) {
+		Integer target = index.get(key);
+		return target == null ? -1 : target;
 	}
 
 	/**
@@ -133,8 +480,109 @@ public class DancingLinkList {
 	 * 
 	 * @return The head of this <code>DancingLinkList</code>.
 	 */
-	public ColumnNode getHead() {
-		return head;
+	public int getHead() {
+		return HEAD;
+	}
+
+	/*
+	 * Node getter methods.
+	 */
+	public int getUp(int node) {
+		return up[node];
+	}
+
+	public int getDown(int node) {
+		return down[node];
+	}
+
+	public int getLeft(int node) {
+		return left[node];
+	}
+
+	public int getRight(int node) {
+		return right[node];
+	}
+
+	/**
+	 * Getter method for the column header.
+	 * 
+	 * @param node
+	 *            The index of a node.
+	 * @return Returns the column header associated with the given node.
+	 */
+	public int getHeader(int node) {
+		return column[node];
+	}
+
+	/**
+	 * Getter method for the row id.
+	 * 
+	 * @param node
+	 *            The index of a node.
+	 * @return Returns the id of the row holding the given node, or
+	 *         <code>-1</code> for a column header.
+	 */
+	public int getRow(int node) {
+		return row[node];
+	}
+
+	/**
+	 * Getter method for the color of a node.
+	 * 
+	 * @param node
+	 *            The index of a node.
+	 * @return Returns the color of the given node, or <code>0</code> if it has
+	 *         none.
+	 */
+	public int getColor(int node) {
+		return color == null ? 0 : color[node];
+	}
+
+	/**
+	 * Returns the number of children of the given column.
+	 * 
+	 * @param header
+	 *            The index of a column header.
+	 * @return The number of children for this column.
+	 */
+	public int getSize(int header) {
+		return size[header];
+	}
+
+	/**
+	 * Returns the given column's name.
+	 * 
+	 * @param header
+	 *            The index of a column header.
+	 * @return The column's name.
+	 */
+	public String getName(int header) {
+		return names[header];
+	}
+
+	/**
+	 * Returns whether or not the given column is primary.
+	 * 
+	 * @param header
+	 *            The index of a column header.
+	 * @return <code>true</code> if the column must be covered, or
+	 *         <code>false</code> if it is a secondary column.
+	 */
+	public boolean isPrimary(int header) {
+		// Only secondary headers are linked to themselves, even once covered.
+		return right[header] != header;
+	}
+
+	/**
+	 * Returns whether or not the given node is a column header.
+	 * 
+	 * @param node
+	 *            The index of a node.
+	 * @return <code>true</code> if this node is a column header, else
+	 *         <code>false</code>.
+	 */
+	public boolean isHeader(int node) {
+		return node <= columns;
 	}
 
 	/*
@@ -143,11 +591,12 @@ public class DancingLinkList {
 	 * @see java.lang.Object#toString()
 	 */
 	public String toString() {
-		String s = "";
-		ColumnNode t = head;
-		while (t.getLeft() != head) {
-			s += t.getName() + "\n";
+		StringBuilder s = new StringBuilder();
+		int t = right[HEAD];
+		while (t != HEAD) {
+			s.append(names[t]).append(", ").append(size[t]).append("\n");
+			t = right[t];
 		}
-		return s;
+		return s.toString();
 	}
 }
@@ -1,12 +1,13 @@
 package ca.lavoiedn.DLX;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
-
-import ca.lavoiedn.ToroidalList.ColumnNode;
-import ca.lavoiedn.ToroidalList.ToroidalNode;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class implements the Dancing Links (or DLX) algorithm, as seen in Donald
@@ -17,42 +18,433 @@ import ca.lavoiedn.ToroidalList.ToroidalNode;
  * utmost importance. They need to be explored prior to beginning the actual
  * search, since these rows and columns will be omitted from the search.
  * 
+ * Only the primary columns of the matrix are branched on. Secondary columns
+ * are covered along with the rows that use them, so at most one row of the
+ * solution uses each of them, but they do not need to be covered. When the
+ * nodes of a secondary column carry colors, this is Knuth's exact covering
+ * with colors: rows that give the same color to a secondary column may share
+ * it. Selecting such a row purifies the column, hiding the rows of any other
+ * color, instead of covering it.
+ * 
+ * A search can be given a budget, as {@link ca.lavoiedn.DLX.SearchLimits} and
+ * a {@link ca.lavoiedn.DLX.CancellationToken}. When it runs out, the search
+ * stops with its partial metrics, and <code>getStatus</code> tells which
+ * limit was reached.
+ * 
+ * A {@link ca.lavoiedn.DLX.SearchRecorder} can follow the solves, and their
+ * phases other than the search itself, to emit profiling events, and a
+ * {@link ca.lavoiedn.DLX.ProgressListener} can follow a long search. Both are
+ * only called outside of the search loop, or along with the periodic check of
+ * the limits, so they cost nothing when none is set.
+ * 
+ * A problem can also be kept loaded with <code>load</code>, then solved again
+ * and again with <code>resolve</code> under a list of assumed rows, which
+ * must be part of the solution, and of excluded rows, which must not. These
+ * are applied to the loaded matrix by covering and uncovering its rows, and
+ * only the ones that changed since the previous call are applied again.
+ * 
  * @author lavoiedn
  */
 
 public class DancingLinksSearch {
 
 	private DancingLinkList sparseMatrix;
+	private int[] up;
+	private int[] down;
+	private int[] left;
+	private int[] right;
+	private int[] column;
+	private int[] size;
+
 	private ExactCoverProblem problem;
-	private List<ExactCoverAction> actions;
-	private List<ExactCoverAction> solution;
+	private SolutionListener listener;
+	private ColumnSelectionStrategy columnSelection = new MinimumSizeSelection();
+	private BucketQueueSelection buckets;
 
-	private TreeMap<String, Long> metrics;
+	private int[] row;
+	private int[] color;
 
-	public static final String METRICS_NUMBER_OF_NODES = "torsize";
-	public static final String METRICS_ELAPSED_TIME = "elapsedtime";
-	public static final String METRICS_NODES_EXPLORED = "nodesexplored";
-	public static final String METRICS_SET_CONSTRAINTS = "numberinitialconstraints";
+	private int[] choices;
+	private boolean[] handedOff;
+	private int[] selected;
+	private int selectedCount;
+	private int level;
+	private boolean suspended;
+	private long nodes;
+	private long updates;
+	private long[] nodesPerDepth;
+
+	private SearchLimits limits = new SearchLimits();
+	private CancellationToken cancellationToken;
+	private SearchStatus status;
+	private SearchStatus interruption;
+	private int maxDepth;
+	private int untilCheck;
+	private boolean depthCut;
+	private long solutionsFound;
+
+	private ProgressListener progressListener;
+	private long progressNodes;
+	private long progressTime;
+	private SearchProgress progress;
+	private long startTime;
+	private long nextProgressNodes;
+	private long nextProgressTime;
+
+	private int[] rowNodes;
+	private boolean[] initialRows;
+	private boolean[] assumedSelected;
+	private int[] assumedRows;
+	private int[] assumedNodes;
+	private int assumedCount;
+	private int[] excludedRows;
+	private int[] excludedNodes;
+	private int excludedCount;
+	private int excludedInitialCount;
+
+	int splitDepth;
+	AtomicBoolean stop;
+	long deadline;
+
+	private final SearchMetrics metrics = new SearchMetrics();
 
 	/**
-	 * Solves the given {@link ca.lavoiedn.DLX.ExactCoverProblem}.
+	 * The recorder found on the class path, copied by every search.
+	 */
+	private static final SearchRecorder DEFAULT_RECORDER = loadRecorder();
+	private SearchRecorder recorder = newDefaultRecorder();
+
+	/**
+	 * Solution limit used to enumerate every solution of a problem.
+	 */
+	public static final long ALL_SOLUTIONS = Long.MAX_VALUE;
+
+	/**
+	 * Solves the given {@link ca.lavoiedn.DLX.ExactCoverProblem}, stopping at
+	 * the first solution found. A problem kept by <code>load</code> is
+	 * discarded.
 	 * 
 	 * @param problem
 	 *            The {@link ca.lavoiedn.DLX.ExactCoverProblem} to solve.
-	 * @return A list of actions to solve the given <code>problem</code>.
+	 * @return A list of actions to solve the given <code>problem</code>, or an
+	 *         empty list if it has no solution.
 	 */
 	public List<ExactCoverAction> solve(ExactCoverProblem problem) {
-		long elapsedTime = System.currentTimeMillis();
-		actions = new LinkedList<ExactCoverAction>();
-		solution = new LinkedList<ExactCoverAction>();
-		metrics = new TreeMap<String, Long>();
+		final List<ExactCoverAction> solution = new LinkedList<ExactCoverAction>();
+		solve(problem, 1, new SolutionListener() {
+			@Override
+			public void solutionFound(List<ExactCoverAction> found) {
+				solution.addAll(found);
+			}
+		});
+		return solution;
+	}
+
+	/**
+	 * Counts the solutions of the given
+	 * {@link ca.lavoiedn.DLX.ExactCoverProblem}, up to the given limit. No
+	 * action is built during the search. A limit of 2 is enough to check that
+	 * a problem has a unique solution. A problem kept by <code>load</code> is
+	 * discarded.
+	 * 
+	 * @param problem
+	 *            The {@link ca.lavoiedn.DLX.ExactCoverProblem} to solve.
+	 * @param limit
+	 *            The number of solutions after which the search stops, or
+	 *            <code>ALL_SOLUTIONS</code>.
+	 * @return The number of solutions found.
+	 */
+	public long countSolutions(ExactCoverProblem problem, long limit) {
+		return solve(problem, limit, null);
+	}
+
+	/**
+	 * Solves the given {@link ca.lavoiedn.DLX.ExactCoverProblem}, handing every
+	 * solution to the given listener as soon as it is found. The search stops
+	 * once <code>limit</code> solutions were found, or when the search tree is
+	 * exhausted.
+	 * 
+	 * The matrix of the problem replaces the one kept by <code>load</code>, if
+	 * any, so <code>load</code> must be called again before the next
+	 * <code>resolve</code>.
+	 * 
+	 * @param problem
+	 *            The {@link ca.lavoiedn.DLX.ExactCoverProblem} to solve.
+	 * @param limit
+	 *            The number of solutions after which the search stops, or
+	 *            <code>ALL_SOLUTIONS</code>.
+	 * @param listener
+	 *            The {@link ca.lavoiedn.DLX.SolutionListener} receiving the
+	 *            solutions. If it is <code>null</code>, the solutions are only
+	 *            counted.
+	 * @return The number of solutions found.
+	 */
+	public long solve(ExactCoverProblem problem, long limit,
+			SolutionListener listener) {
+		long allocated = SearchMetrics.getThreadAllocatedBytes();
+		long time = System.nanoTime();
+		startTime = time;
+		metrics.reset();
+		deadline = getDeadline(limits);
+		if (recorder != null) {
+			recorder.solveStarted();
+			recorder.phaseStarted(SearchMetrics.Phase.BUILD);
+		}
+
+		DancingLinkList matrix = problem.getSparseMatrix();
+		long now = System.nanoTime();
+		metrics.addTime(SearchMetrics.Phase.BUILD, now - time);
+		time = now;
+		if (recorder != null) {
+			recorder.phaseEnded(SearchMetrics.Phase.BUILD);
+			recorder.phaseStarted(SearchMetrics.Phase.INITIAL_STATE);
+		}
+
+		attach(problem, matrix, listener);
+		applyInitialState();
+		int[] toroidSize = sparseMatrix.size();
+		metrics.matrixSize = toroidSize[0] + toroidSize[1];
+		now = System.nanoTime();
+		metrics.addTime(SearchMetrics.Phase.INITIAL_STATE, now - time);
+		if (recorder != null) {
+			recorder.phaseEnded(SearchMetrics.Phase.INITIAL_STATE);
+		}
+
+		return run(limit, now, allocated, true);
+	}
+
+	/**
+	 * Loads the given {@link ca.lavoiedn.DLX.ExactCoverProblem} and its
+	 * initial state, and keeps its matrix for the following calls to
+	 * <code>resolve</code>. The problem stays loaded until the next call to
+	 * <code>load</code>, <code>solve</code> or <code>countSolutions</code>,
+	 * which attach another matrix to this search and discard it.
+	 * 
+	 * @param problem
+	 *            The {@link ca.lavoiedn.DLX.ExactCoverProblem} to keep.
+	 */
+	public void load(ExactCoverProblem problem) {
+		attach(problem, problem.getSparseMatrix(), null);
+		rowNodes = new int[sparseMatrix.getRowCount()];
+		Arrays.fill(rowNodes, -1);
+		for (int header = 1; header <= sparseMatrix.getColumnCount(); header++) {
+			for (int node = down[header]; node != header; node = down[node]) {
+				if (rowNodes[row[node]] == -1) {
+					rowNodes[row[node]] = node;
+				}
+			}
+		}
+		initialRows = new boolean[rowNodes.length];
+		assumedSelected = new boolean[rowNodes.length];
+		for (ExactCoverAction primerAction : problem.getInitialStateActions()) {
+			int id = findRow(primerAction);
+			if (id != -1) {
+				initialRows[id] = true;
+			}
+		}
+		assumedRows = new int[8];
+		assumedNodes = new int[assumedRows.length];
+		excludedRows = new int[8];
+		excludedNodes = new int[excludedRows.length];
+		applyInitialState();
+	}
+
+	/**
+	 * Solves the loaded problem again under the given assumptions, stopping
+	 * at the first solution found. The rows are identified by their id, as
+	 * given to <code>getSpecificAction</code>.
+	 * 
+	 * @param assumed
+	 *            The ids of the rows that must be part of the solution.
+	 * @param excluded
+	 *            The ids of the rows that must not be part of the solution.
+	 * @return A list of actions to solve the loaded problem, including the
+	 *         assumed rows that are not part of the initial state, or an
+	 *         empty list if it has no solution under these assumptions.
+	 */
+	public List<ExactCoverAction> resolve(int[] assumed, int[] excluded) {
+		final List<ExactCoverAction> solution = new LinkedList<ExactCoverAction>();
+		resolve(assumed, excluded, 1, new SolutionListener() {
+			@Override
+			public void solutionFound(List<ExactCoverAction> found) {
+				solution.addAll(found);
+			}
+		});
+		return solution;
+	}
+
+	/**
+	 * Solves the loaded problem again under the given assumptions, handing
+	 * every solution to the given listener. Only the assumptions that differ
+	 * from those of the previous call, from the first one that changed, are
+	 * uncovered and covered again, so the matrix is never rebuilt. The
+	 * metrics of a resolve leave out the size of the matrix, which would take
+	 * longer to measure than the assumptions take to apply.
+	 * 
+	 * A row assumed more than once is only selected once. A row that is both
+	 * assumed and excluded leaves the problem without solution.
+	 * 
+	 * @param assumed
+	 *            The ids of the rows that must be part of the solution.
+	 * @param excluded
+	 *            The ids of the rows that must not be part of the solution.
+	 * @param limit
+	 *            The number of solutions after which the search stops, or
+	 *            <code>ALL_SOLUTIONS</code>.
+	 * @param listener
+	 *            The {@link ca.lavoiedn.DLX.SolutionListener} receiving the
+	 *            solutions. If it is <code>null</code>, the solutions are only
+	 *            counted.
+	 * @return The number of solutions found.
+	 * @throws IllegalStateException
+	 *             If no problem was loaded, or if it was discarded by
+	 *             <code>solve</code>.
+	 */
+	public long resolve(int[] assumed, int[] excluded, long limit,
+			SolutionListener listener) {
+		if (rowNodes == null) {
+			throw new IllegalStateException("No problem was loaded.");
+		}
+		long allocated = SearchMetrics.getThreadAllocatedBytes();
+		long time = System.nanoTime();
+		startTime = time;
+		metrics.reset();
+		deadline = getDeadline(limits);
+		if (recorder != null) {
+			recorder.solveStarted();
+			recorder.phaseStarted(SearchMetrics.Phase.INITIAL_STATE);
+		}
 
+		this.listener = listener;
+		restart();
+		boolean feasible = assume(assumed, excluded);
+		metrics.initialConstraints = selectedCount + excludedCount;
+		long now = System.nanoTime();
+		metrics.addTime(SearchMetrics.Phase.INITIAL_STATE, now - time);
+		if (recorder != null) {
+			recorder.phaseEnded(SearchMetrics.Phase.INITIAL_STATE);
+		}
+
+		long solutions = run(limit, now, allocated, feasible);
+		// Leaves the assumptions in place for the next call.
+		unwind();
+		return solutions;
+	}
+
+	/**
+	 * Searches the attached matrix for solutions, then records the status and
+	 * the metrics of the solve.
+	 * 
+	 * @param limit
+	 *            The number of solutions after which the search stops.
+	 * @param time
+	 *            The start of the search, from <code>System.nanoTime</code>.
+	 * @param allocated
+	 *            The bytes allocated by the thread at the start of the solve.
+	 * @param feasible
+	 *            <code>false</code> if the problem is already known to have no
+	 *            solution, else <code>true</code>.
+	 * @return The number of solutions found.
+	 */
+	private long run(long limit, long time, long allocated, boolean feasible) {
+		solutionsFound = 0;
+		nextProgressNodes = progressNodes;
+		nextProgressTime = time + progressTime;
+		while (feasible && solutionsFound < limit && search()) {
+			if (addSolution()) {
+				solutionsFound++;
+			}
+		}
+		long solutions = solutionsFound;
+		status = getStatus(interruption, solutions >= limit, depthCut);
+
+		// The verification time was measured within the search loop.
+		metrics.addTime(SearchMetrics.Phase.SEARCH, System.nanoTime() - time
+				- metrics.getTime(SearchMetrics.Phase.VERIFICATION));
+		recordMetrics();
+		metrics.solutions = solutions;
+		metrics.solves = 1;
+		metrics.allocatedBytes = SearchMetrics.getThreadAllocatedBytes()
+				- allocated;
+		if (recorder != null) {
+			recorder.solveEnded(problem, metrics, status);
+		}
+
+		return solutions;
+	}
+
+	/**
+	 * Prepares this search to explore the given matrix, which must belong to
+	 * the given problem.
+	 * 
+	 * @param problem
+	 *            The {@link ca.lavoiedn.DLX.ExactCoverProblem} to solve.
+	 * @param matrix
+	 *            The sparse matrix representing the problem.
+	 * @param listener
+	 *            The {@link ca.lavoiedn.DLX.SolutionListener} receiving the
+	 *            solutions, or <code>null</code>.
+	 */
+	void attach(ExactCoverProblem problem, DancingLinkList matrix,
+			SolutionListener listener) {
 		this.problem = problem;
-		sparseMatrix = problem.getSparseMatrix();
+		this.listener = listener;
+		sparseMatrix = matrix;
+		up = sparseMatrix.up;
+		down = sparseMatrix.down;
+		left = sparseMatrix.left;
+		right = sparseMatrix.right;
+		column = sparseMatrix.column;
+		size = sparseMatrix.size;
+		row = sparseMatrix.row;
+		color = sparseMatrix.color;
 
-		metrics.put(METRICS_SET_CONSTRAINTS, new Long(problem
-				.getInitialStateActions().size()));
+		choices = new int[sparseMatrix.getColumnCount() + 1];
+		handedOff = new boolean[choices.length];
+		selected = new int[choices.length];
+		selectedCount = 0;
+		rowNodes = null;
+		initialRows = null;
+		assumedSelected = null;
+		assumedCount = 0;
+		excludedCount = 0;
+		excludedInitialCount = 0;
+		attachColumnSelection();
+		restart();
+	}
 
+	/**
+	 * Attaches the column selection strategy to the matrix of this search.
+	 */
+	private void attachColumnSelection() {
+		columnSelection.attach(sparseMatrix);
+		// The bucket queue must follow every change of a column's size.
+		buckets = columnSelection instanceof BucketQueueSelection ? (BucketQueueSelection) columnSelection
+				: null;
+	}
+
+	/**
+	 * Resets the state of the search and its counters before a solve of the
+	 * attached matrix.
+	 */
+	private void restart() {
+		interruption = null;
+		depthCut = false;
+		untilCheck = limits.getCheckInterval();
+		maxDepth = limits.getDepthLimit() > 0 ? limits.getDepthLimit()
+				: Integer.MAX_VALUE;
+		level = 0;
+		suspended = false;
+		nodes = 0;
+		updates = 0;
+		metrics.ensureDepth(choices.length);
+		nodesPerDepth = metrics.nodesPerDepth;
+	}
+
+	/**
+	 * Explores the constraints of the problem's initial state.
+	 */
+	void applyInitialState() {
 		// We explore the initial constraints, since those were already
 		// "removed" from the constraint table of the problem given.
 		// We could also code "getSparseMatrix" to return a specific
@@ -60,10 +452,11 @@ public class DancingLinksSearch {
 		// kind. I like this way, however, because it helps illustrate how the
 		// algorithm works.
 		for (ExactCoverAction primerAction : problem.getInitialStateActions()) {
+			metrics.initialConstraints++;
 			String[] constraints = primerAction.getConstraintKeys();
 			for (String constraintKey : constraints) {
-				ColumnNode preConstraint = sparseMatrix.getCol(constraintKey);
-				if (preConstraint != null) {
+				int preConstraint = sparseMatrix.getCol(constraintKey);
+				if (preConstraint != -1) {
 					// Note: these nodes are not counted as expanded nodes
 					// for the search,since they are
 					// merely explored to build the initial state.
@@ -71,80 +464,591 @@ public class DancingLinksSearch {
 				}
 			}
 		}
+	}
 
-		int[] toroidSize = sparseMatrix.size();
-		metrics.put(METRICS_NUMBER_OF_NODES, new Long(toroidSize[0]
-				+ toroidSize[1]));
+	/**
+	 * This is the main loop of the dancing links algorithm. A column is
+	 * selected for exploration at each level of the search, and its rows are
+	 * then tried one after the other. If the exploration of a row is
+	 * successful, the search keeps going deeper until there are no more
+	 * columns to explore, or backtracks if there is no solution to be found
+	 * down the current path of constraints.
+	 * 
+	 * Rather than recursing, the row chosen at each level is kept in the
+	 * <code>choices</code> stack, so the depth of the search is not bounded by
+	 * the thread's stack. The search stops when it reaches a solution, leaving
+	 * the matrix in that state; calling this method again resumes it from
+	 * there.
+	 * 
+	 * @return Returns <code>true</code> if a solution was found, or
+	 *         <code>false</code> if the search tree is exhausted or the search
+	 *         was stopped.
+	 */
+	boolean search() {
+		boolean forward = !suspended;
+		suspended = false;
+		while (true) {
+			if (--untilCheck <= 0 && limitReached()) {
+				unwind();
+				return false;
+			}
 
-		int nodes = search(0);
+			int currentRowNode;
+			if (forward) {
+				int toSearch = columnSelection.select(sparseMatrix);
+				if (toSearch == sparseMatrix.getHead()) {
+					suspended = true;
+					return true;
+				}
+				if (selectedCount + level >= maxDepth) {
+					depthCut = true;
+					forward = false;
+					continue;
+				}
+				nodes += explore(toSearch);
+				currentRowNode = down[toSearch];
+				if (currentRowNode == toSearch) {
+					columnSelection.failed(toSearch);
+				}
+				if (level < splitDepth && currentRowNode != toSearch
+						&& split(choices, level, currentRowNode)) {
+					handedOff[level] = true;
+				}
+			} else {
+				if (level == 0) {
+					return false;
+				}
+				level--;
+				currentRowNode = choices[level];
+				int leftRowNode = left[currentRowNode];
+				while (leftRowNode != currentRowNode) {
+					uncommit(leftRowNode);
+					leftRowNode = left[leftRowNode];
+				}
+				if (handedOff[level]) {
+					handedOff[level] = false;
+					currentRowNode = column[currentRowNode];
+				} else {
+					currentRowNode = down[currentRowNode];
+				}
+			}
 
-		elapsedTime = System.currentTimeMillis() - elapsedTime;
-		metrics.put(METRICS_NODES_EXPLORED, new Long(nodes));
-		metrics.put(METRICS_ELAPSED_TIME, elapsedTime);
+			// Every row of this column was tried, go back up one level.
+			if (currentRowNode == column[currentRowNode]) {
+				backtrack(currentRowNode);
+				forward = false;
+				continue;
+			}
 
-		return solution;
+			choices[level] = currentRowNode;
+			nodesPerDepth[selectedCount + level]++;
+			int rightRowNode = right[currentRowNode];
+			while (rightRowNode != currentRowNode) {
+				nodes += commit(rightRowNode);
+				rightRowNode = right[rightRowNode];
+			}
+			level++;
+			forward = true;
+		}
 	}
 
 	/**
+	 * Checks the limits of this search, and whether it was asked to stop.
+	 * Once a limit is reached, the search checks again at its very next step,
+	 * so a check made outside of the search loop also stops it.
 	 * 
-	 * This is the recursive portion of the dancing links algorithm. A
-	 * <code>ColumnNode</code> is selected for exploration for this step of the
-	 * search, it is then added to the list of potential solutions before being
-	 * explored. If the exploration is successful, it will keep going deeper
-	 * until there are no more columns to explore or backtrack if there is no
-	 * solution to be found down the current path of constraints.
+	 * @return <code>true</code> if the search must stop, else
+	 *         <code>false</code>.
+	 */
+	boolean limitReached() {
+		if (progressListener != null) {
+			reportProgress();
+		}
+		if (stop != null && stop.get()) {
+			untilCheck = 0;
+			return true;
+		}
+		SearchStatus reached = checkLimits(countNodes());
+		if (reached == null) {
+			untilCheck = limits.getCheckInterval();
+			return false;
+		}
+		interrupt(reached);
+		untilCheck = 0;
+		return true;
+	}
+
+	/**
+	 * Hands the progress of this search to its listener, if it is due.
+	 */
+	private void reportProgress() {
+		long now = System.nanoTime();
+		if ((progressNodes <= 0 || nodes < nextProgressNodes)
+				&& (progressTime <= 0 || now - nextProgressTime < 0)) {
+			return;
+		}
+		nextProgressNodes = nodes + progressNodes;
+		nextProgressTime = now + progressTime;
+
+		progress.depth = selectedCount + level;
+		progress.nodesExplored = nodes;
+		progress.solutionsFound = solutionsFound;
+		progress.elapsedTime = now - startTime;
+		progress.levels = Math.min(level, SearchProgress.TRACKED_LEVELS);
+		for (int i = 0; i < progress.levels; i++) {
+			// A covered column keeps its rows, so they can still be counted.
+			int header = column[choices[i]];
+			int branch = 0;
+			for (int node = down[header]; node != choices[i]; node = down[node]) {
+				branch++;
+			}
+			progress.branch[i] = branch;
+			progress.branches[i] = size[header];
+		}
+		progressListener.progress(progress);
+	}
+
+	/**
+	 * Returns the number of nodes counted against the node limit.
 	 * 
-	 * @param step
-	 *            The step index of this search.
-	 * @return Returns the number of nodes visited for this step.
+	 * @return The number of nodes explored by this search so far.
 	 */
-	private int search(int step) {
-		int nodesVisited = 0;
-		ColumnNode toSearch = columnSelection();
+	long countNodes() {
+		return nodes;
+	}
 
-		if (toSearch == sparseMatrix.getHead()) {
-			ExactCoverProblem toSolve = problem.clone();
+	/**
+	 * Records the limit that stopped this search.
+	 * 
+	 * @param reached
+	 *            The status describing the limit.
+	 */
+	void interrupt(SearchStatus reached) {
+		interruption = reached;
+	}
+
+	/**
+	 * Returns the limit reached by a search, if any.
+	 * 
+	 * @param nodesExplored
+	 *            The number of nodes explored so far.
+	 * @return The status describing the limit reached, or <code>null</code>.
+	 */
+	SearchStatus checkLimits(long nodesExplored) {
+		if (cancellationToken != null && cancellationToken.isCancelled()) {
+			return SearchStatus.CANCELLED;
+		}
+		if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0) {
+			return SearchStatus.TIME_LIMIT;
+		}
+		if (limits.getNodeLimit() > 0 && nodesExplored >= limits.getNodeLimit()) {
+			return SearchStatus.NODE_LIMIT;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the <code>System.nanoTime</code> at which a search starting now
+	 * runs out of time.
+	 * 
+	 * @param limits
+	 *            The limits of the search.
+	 * @return The deadline of the search, or <code>Long.MAX_VALUE</code>.
+	 */
+	static long getDeadline(SearchLimits limits) {
+		return limits.getTimeLimit() > 0 ? System.nanoTime()
+				+ limits.getTimeLimit() : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the status of a finished search.
+	 * 
+	 * @param interruption
+	 *            The limit that interrupted the search, or <code>null</code>.
+	 * @param solutionLimit
+	 *            Whether or not the requested number of solutions was found.
+	 * @param depthCut
+	 *            Whether or not a branch was cut by the depth limit.
+	 * @return The status of the search.
+	 */
+	static SearchStatus getStatus(SearchStatus interruption,
+			boolean solutionLimit, boolean depthCut) {
+		if (interruption != null) {
+			return interruption;
+		} else if (solutionLimit) {
+			return SearchStatus.SOLUTION_LIMIT;
+		} else if (depthCut) {
+			return SearchStatus.DEPTH_LIMIT;
+		}
+		return SearchStatus.COMPLETED;
+	}
+
+	/**
+	 * Returns whether or not a branch of this search was cut by the depth
+	 * limit.
+	 * 
+	 * @return <code>true</code> if a branch was cut, else <code>false</code>.
+	 */
+	boolean isDepthCut() {
+		return depthCut;
+	}
+
+	/**
+	 * Offers to hand the rows following <code>row</code> in its column to
+	 * another search, for the levels below <code>splitDepth</code>. The
+	 * sequential search never splits.
+	 * 
+	 * @param path
+	 *            The rows chosen at the previous levels of the search.
+	 * @param depth
+	 *            The current level of the search.
+	 * @param row
+	 *            The first row of the column selected at this level, which
+	 *            this search keeps.
+	 * @return <code>true</code> if the following rows were handed off, else
+	 *         <code>false</code>.
+	 */
+	boolean split(int[] path, int depth, int row) {
+		return false;
+	}
+
+	/**
+	 * Selects the given row as if the search had chosen it, covering every
+	 * column it belongs to.
+	 * 
+	 * @param row
+	 *            A node of the row to select.
+	 */
+	void select(int row) {
+		explore(column[row]);
+		selected[selectedCount++] = row;
+		int rightRowNode = right[row];
+		while (rightRowNode != row) {
+			commit(rightRowNode);
+			rightRowNode = right[rightRowNode];
+		}
+	}
+
+	/**
+	 * Reverts <code>select</code> for the given row. Rows must be deselected
+	 * in the reverse order of their selection.
+	 * 
+	 * @param row
+	 *            A node of the row to deselect.
+	 */
+	void deselect(int row) {
+		int leftRowNode = left[row];
+		while (leftRowNode != row) {
+			uncommit(leftRowNode);
+			leftRowNode = left[leftRowNode];
+		}
+		selectedCount--;
+		backtrack(column[row]);
+	}
 
-			for (ExactCoverAction action : actions) {
-				toSolve.changeState(action);
-				solution.add(action);
+	/**
+	 * Brings the assumptions applied to the loaded matrix in line with the
+	 * given ones. The exclusions are applied first, and both are kept as
+	 * stacks: the assumptions and exclusions past the first one that changed
+	 * are reverted, in reverse order, then the new ones are applied. An
+	 * assumed row of the initial state, or one that is already assumed, is
+	 * met, and is skipped. An excluded row is out of the matrix, so assuming
+	 * it too gives no solution.
+	 * 
+	 * @param assumed
+	 *            The ids of the rows that must be part of the solution.
+	 * @param excluded
+	 *            The ids of the rows that must not be part of the solution.
+	 * @return <code>false</code> if a row of the initial state is excluded,
+	 *         or if an assumed row conflicts with the initial state or with
+	 *         the other assumptions, else <code>true</code>.
+	 */
+	private boolean assume(int[] assumed, int[] excluded) {
+		int keptExclusions = 0;
+		while (keptExclusions < excludedCount
+				&& keptExclusions < excluded.length
+				&& excludedRows[keptExclusions] == excluded[keptExclusions]) {
+			keptExclusions++;
+		}
+		int keptAssumptions = 0;
+		if (keptExclusions == excludedCount
+				&& keptExclusions == excluded.length) {
+			while (keptAssumptions < assumedCount
+					&& keptAssumptions < assumed.length
+					&& assumedRows[keptAssumptions] == assumed[keptAssumptions]) {
+				keptAssumptions++;
 			}
+		}
 
-			// Failsafe. In theory, if we get this far, the problem is solved.
-			if (!toSolve.isSolved()) {
-				solution = new LinkedList<ExactCoverAction>();
+		while (assumedCount > keptAssumptions) {
+			assumedCount--;
+			if (assumedNodes[assumedCount] != -1) {
+				deselect(assumedNodes[assumedCount]);
+				assumedSelected[assumedRows[assumedCount]] = false;
+			}
+		}
+		while (excludedCount > keptExclusions) {
+			excludedCount--;
+			if (initialRows[excludedRows[excludedCount]]) {
+				excludedInitialCount--;
+			} else if (excludedNodes[excludedCount] != -1) {
+				include(excludedNodes[excludedCount]);
 			}
+		}
 
-			return nodesVisited;
+		for (int i = excludedCount; i < excluded.length; i++) {
+			int node = getRowNode(excluded[i]);
+			if (excludedCount == excludedRows.length) {
+				excludedRows = Arrays.copyOf(excludedRows, 2 * excludedCount);
+				excludedNodes = Arrays.copyOf(excludedNodes, 2 * excludedCount);
+			}
+			excludedRows[excludedCount] = excluded[i];
+			if (initialRows[excluded[i]]) {
+				excludedInitialCount++;
+				node = -1;
+			} else if (isAvailable(node)) {
+				exclude(node);
+			} else {
+				// A row already out of the matrix is only remembered.
+				node = -1;
+			}
+			excludedNodes[excludedCount++] = node;
+		}
+		if (excludedInitialCount > 0) {
+			return false;
 		}
 
-		nodesVisited += explore(toSearch);
-		ToroidalNode currentRowNode = toSearch.getDown();
-		while (currentRowNode != toSearch) {
-			ExactCoverAction action = problem.getSpecificAction(currentRowNode);
-			actions.add(action);
+		for (int i = assumedCount; i < assumed.length; i++) {
+			int node = getRowNode(assumed[i]);
+			if (assumedCount == assumedRows.length) {
+				assumedRows = Arrays.copyOf(assumedRows, 2 * assumedCount);
+				assumedNodes = Arrays.copyOf(assumedNodes, 2 * assumedCount);
+			}
+			if (initialRows[assumed[i]] || assumedSelected[assumed[i]]) {
+				node = -1;
+			} else if (isAvailable(node)) {
+				select(node);
+				assumedSelected[assumed[i]] = true;
+			} else {
+				return false;
+			}
+			assumedRows[assumedCount] = assumed[i];
+			assumedNodes[assumedCount++] = node;
+		}
+		return true;
+	}
 
-			ToroidalNode rightRowNode = currentRowNode.getRight();
-			while (rightRowNode != currentRowNode) {
-				nodesVisited += explore(rightRowNode.getHeader());
-				rightRowNode = rightRowNode.getRight();
+	/**
+	 * Finds the row of the loaded matrix covering the same columns as the
+	 * given action. It must be called before the initial state is applied.
+	 * 
+	 * @param action
+	 *            An action of the loaded problem.
+	 * @return The id of the row, or <code>-1</code> if no row of the matrix
+	 *         matches the action.
+	 */
+	private int findRow(ExactCoverAction action) {
+		String[] constraints = action.getConstraintKeys();
+		int[] headers = new int[constraints.length];
+		int headerCount = 0;
+		for (String constraintKey : constraints) {
+			int header = sparseMatrix.getCol(constraintKey);
+			if (header != -1) {
+				headers[headerCount++] = header;
 			}
+		}
+		if (headerCount == 0) {
+			return -1;
+		}
+		for (int node = down[headers[0]]; node != headers[0]; node = down[node]) {
+			int matched = 0;
+			int current = node;
+			do {
+				int i = 0;
+				while (i < headerCount && headers[i] != column[current]) {
+					i++;
+				}
+				if (i == headerCount) {
+					matched = -1;
+					break;
+				}
+				matched++;
+				current = right[current];
+			} while (current != node);
+			if (matched == headerCount) {
+				return row[node];
+			}
+		}
+		return -1;
+	}
 
-			nodesVisited += search(step + 1);
-			actions.remove(action);
+	/**
+	 * Returns a node of the row with the given id in the loaded matrix.
+	 * 
+	 * @param id
+	 *            The id of the row.
+	 * @return A node of this row.
+	 * @throws IllegalArgumentException
+	 *             If the loaded matrix has no such row.
+	 */
+	private int getRowNode(int id) {
+		if (id < 0 || id >= rowNodes.length || rowNodes[id] == -1) {
+			throw new IllegalArgumentException("Row " + id
+					+ " is not a row of the loaded problem.");
+		}
+		return rowNodes[id];
+	}
 
-			toSearch = currentRowNode.getHeader();
+	/**
+	 * Determines whether the row of the given node can still be selected:
+	 * none of its nodes was hidden, and none of its primary columns was
+	 * covered.
+	 * 
+	 * @param node
+	 *            A node of the row.
+	 * @return <code>true</code> if the row is still in the matrix, else
+	 *         <code>false</code>.
+	 */
+	private boolean isAvailable(int node) {
+		int current = node;
+		do {
+			int header = column[current];
+			if (down[up[current]] != current || right[header] != header
+					&& right[left[header]] != header) {
+				return false;
+			}
+			current = right[current];
+		} while (current != node);
+		return true;
+	}
 
-			rightRowNode = currentRowNode.getLeft();
-			while (rightRowNode != currentRowNode) {
-				backtrack(rightRowNode.getHeader());
-				rightRowNode = rightRowNode.getLeft();
+	/**
+	 * Removes the row of the given node from every one of its columns.
+	 * 
+	 * @param node
+	 *            A node of the row to remove.
+	 */
+	private void exclude(int node) {
+		int current = node;
+		do {
+			down[up[current]] = down[current];
+			up[down[current]] = up[current];
+			size[column[current]]--;
+			if (buckets != null) {
+				buckets.decreased(column[current]);
 			}
+			current = right[current];
+		} while (current != node);
+	}
 
-			currentRowNode = currentRowNode.getDown();
+	/**
+	 * Restores the row of the given node in every one of its columns.
+	 * Reverts <code>exclude</code>.
+	 * 
+	 * @param node
+	 *            The node given to <code>exclude</code>.
+	 */
+	private void include(int node) {
+		int current = node;
+		do {
+			current = left[current];
+			down[up[current]] = current;
+			up[down[current]] = current;
+			size[column[current]]++;
+			if (buckets != null) {
+				buckets.increased(column[current]);
+			}
+		} while (current != node);
+	}
+
+	/**
+	 * Backtracks every level of the search, restoring the matrix to the state
+	 * it was in before the search started.
+	 */
+	private void unwind() {
+		while (level > 0) {
+			level--;
+			// The chosen rows are not on the stack of the selected ones.
+			int leftRowNode = left[choices[level]];
+			while (leftRowNode != choices[level]) {
+				uncommit(leftRowNode);
+				leftRowNode = left[leftRowNode];
+			}
+			backtrack(column[choices[level]]);
+			handedOff[level] = false;
+		}
+		suspended = false;
+	}
+
+	/**
+	 * Returns the sparse matrix explored by this search.
+	 * 
+	 * @return The sparse matrix explored by this search.
+	 */
+	DancingLinkList getSparseMatrix() {
+		return sparseMatrix;
+	}
+
+	/**
+	 * Returns the number of nodes explored by this search so far.
+	 * 
+	 * @return The number of nodes explored by this search so far.
+	 */
+	long getNodesExplored() {
+		return nodes;
+	}
+
+	/**
+	 * Copies the counters of this search, since it was attached, to its
+	 * metrics.
+	 */
+	void recordMetrics() {
+		metrics.nodesExplored = nodes;
+		metrics.updates = updates;
+	}
+
+	/**
+	 * Builds the actions leading to the current state of the search and hands
+	 * them to the listener, if there is one. The actions are only built here,
+	 * from the row ids of the chosen rows.
+	 * 
+	 * @return <code>true</code> if the solution was valid, else
+	 *         <code>false</code>.
+	 */
+	boolean addSolution() {
+		if (listener == null) {
+			return true;
+		}
+
+		if (recorder != null) {
+			recorder.phaseStarted(SearchMetrics.Phase.VERIFICATION);
+		}
+		long time = System.nanoTime();
+		List<ExactCoverAction> actions = new ArrayList<ExactCoverAction>(
+				selectedCount + level);
+		for (int i = 0; i < selectedCount; i++) {
+			actions.add(problem.getSpecificAction(row[selected[i]]));
+		}
+		for (int i = 0; i < level; i++) {
+			actions.add(problem.getSpecificAction(row[choices[i]]));
+		}
+
+		ExactCoverProblem toSolve = problem.clone();
+		for (ExactCoverAction action : actions) {
+			toSolve.changeState(action);
+		}
+
+		// Failsafe. In theory, if we get this far, the problem is solved.
+		boolean solved = toSolve.isSolved();
+		if (solved) {
+			listener.solutionFound(actions);
 		}
-		backtrack(toSearch);
-		return nodesVisited;
+		metrics.addTime(SearchMetrics.Phase.VERIFICATION, System.nanoTime()
+				- time);
+		if (recorder != null) {
+			recorder.phaseEnded(SearchMetrics.Phase.VERIFICATION);
+		}
+		return solved;
 	}
 
 	/**
@@ -159,21 +1063,18 @@ public class DancingLinksSearch {
 	 *            The column to temporarily remove from the toroidal list.
 	 * @return Returns the number of nodes covered by this function.
 	 */
-	private int explore(ToroidalNode toExplore) {
+	private int explore(int toExplore) {
 		int nodesExplored = 0;
-		toExplore.removeX();
-		ToroidalNode currentRowNode = toExplore.getDown();
+		right[left[toExplore]] = right[toExplore];
+		left[right[toExplore]] = left[toExplore];
+		updates++;
+		if (buckets != null) {
+			buckets.remove(toExplore);
+		}
+		int currentRowNode = down[toExplore];
 		while (currentRowNode != toExplore) {
-			ToroidalNode rowExplore = currentRowNode.getRight();
-			while (rowExplore != currentRowNode) {
-				rowExplore.getHeader().setSize(
-						rowExplore.getHeader().getSize() - 1);
-				rowExplore.removeY();
-				nodesExplored++;
-				rowExplore = rowExplore.getRight();
-			}
-			currentRowNode = currentRowNode.getDown();
-			nodesExplored++;
+			nodesExplored += hide(currentRowNode) + 1;
+			currentRowNode = down[currentRowNode];
 		}
 		return nodesExplored;
 	}
@@ -181,60 +1082,299 @@ public class DancingLinksSearch {
 	/**
 	 * This function uses the fact that every node removed from a doubly linked
 	 * list keeps references to its previous neighbors. Thus, the only required
-	 * operation to restore it in the list (as seen in the
-	 * <code>ToroidalNode</code> "restore" and "remove" functions) is to change
-	 * its former neighbors' references back to this node. This simple operation
-	 * is the reason this algorithm is so effective.
+	 * operation to restore it in the list is to change its former neighbors'
+	 * references back to this node. This simple operation is the reason this
+	 * algorithm is so effective.
 	 * 
 	 * @param toBacktrack
 	 *            The column to restore in the list.
 	 */
-	private void backtrack(ToroidalNode toBacktrack) {
-		ToroidalNode currentRowNode = toBacktrack.getUp();
+	private void backtrack(int toBacktrack) {
+		int currentRowNode = up[toBacktrack];
 		while (currentRowNode != toBacktrack) {
-			ToroidalNode rowExplore = currentRowNode.getLeft();
-			while (rowExplore != currentRowNode) {
-				rowExplore.restoreY();
-				rowExplore.getHeader().setSize(
-						rowExplore.getHeader().getSize() + 1);
-				rowExplore = rowExplore.getLeft();
+			unhide(currentRowNode);
+			currentRowNode = up[currentRowNode];
+		}
+		right[left[toBacktrack]] = toBacktrack;
+		left[right[toBacktrack]] = toBacktrack;
+		if (buckets != null && right[toBacktrack] != toBacktrack) {
+			buckets.insert(toBacktrack);
+		}
+	}
+
+	/**
+	 * Removes the row of the given node from every other column. Nodes whose
+	 * color is already known to be compatible are left in place.
+	 * 
+	 * @param node
+	 *            A node of the row to hide.
+	 * @return Returns the number of nodes removed.
+	 */
+	private int hide(int node) {
+		int nodesExplored = 0;
+		int rowExplore = right[node];
+		while (rowExplore != node) {
+			if (color == null || color[rowExplore] >= 0) {
+				size[column[rowExplore]]--;
+				down[up[rowExplore]] = down[rowExplore];
+				up[down[rowExplore]] = up[rowExplore];
+				if (buckets != null) {
+					buckets.decreased(column[rowExplore]);
+				}
+				nodesExplored++;
 			}
-			currentRowNode = currentRowNode.getUp();
+			rowExplore = right[rowExplore];
 		}
-		toBacktrack.restoreX();
+		updates += nodesExplored;
+		return nodesExplored;
 	}
 
 	/**
-	 * Returns the <code>ColumnNode</code> with the smallest amount of rows
-	 * associated to it. Used to optimize the search.
+	 * Restores the row of the given node in every other column. Reverts
+	 * <code>hide</code>.
 	 * 
-	 * @return The <code>ColumnNode</code> with the smallest amount of rows
-	 *         associated to it.
+	 * @param node
+	 *            A node of the row to restore.
 	 */
-	private ColumnNode columnSelection() {
-		ColumnNode start = sparseMatrix.getHead();
+	private void unhide(int node) {
+		int rowExplore = left[node];
+		while (rowExplore != node) {
+			if (color == null || color[rowExplore] >= 0) {
+				down[up[rowExplore]] = rowExplore;
+				up[down[rowExplore]] = rowExplore;
+				size[column[rowExplore]]++;
+				if (buckets != null) {
+					buckets.increased(column[rowExplore]);
+				}
+			}
+			rowExplore = left[rowExplore];
+		}
+	}
 
-		ColumnNode current = (ColumnNode) start.getRight();
-		ColumnNode best = null;
-		int size = Integer.MAX_VALUE;
+	/**
+	 * Commits the column of the given node, from a row being selected. A
+	 * column without color is explored, while a colored column is purified.
+	 * 
+	 * @param node
+	 *            A node of the selected row.
+	 * @return Returns the number of nodes covered by this function.
+	 */
+	private int commit(int node) {
+		if (color == null || color[node] == 0) {
+			return explore(column[node]);
+		} else if (color[node] > 0) {
+			return purify(node);
+		}
+		// The column was already purified with this node's color.
+		return 0;
+	}
 
-		while (current != start) {
-			if (current.getSize() < size) {
-				size = current.getSize();
-				best = current;
+	/**
+	 * Reverts <code>commit</code> for the given node.
+	 * 
+	 * @param node
+	 *            A node of the deselected row.
+	 */
+	private void uncommit(int node) {
+		if (color == null || color[node] == 0) {
+			backtrack(column[node]);
+		} else if (color[node] > 0) {
+			unpurify(node);
+		}
+	}
+
+	/**
+	 * Hides every row giving another color than the given node's to its
+	 * column. The nodes of the other rows of the same color are marked with a
+	 * negative color, so that they are neither hidden nor committed while the
+	 * column is purified.
+	 * 
+	 * @param node
+	 *            The colored node of the selected row.
+	 * @return Returns the number of nodes covered by this function.
+	 */
+	private int purify(int node) {
+		int nodesExplored = 0;
+		int header = column[node];
+		int nodeColor = color[node];
+		int currentRowNode = down[header];
+		while (currentRowNode != header) {
+			if (color[currentRowNode] != nodeColor) {
+				nodesExplored += hide(currentRowNode) + 1;
+			} else if (currentRowNode != node) {
+				color[currentRowNode] = -1;
 			}
-			current = (ColumnNode) current.getRight();
+			currentRowNode = down[currentRowNode];
+		}
+		return nodesExplored;
+	}
+
+	/**
+	 * Reverts <code>purify</code> for the given node.
+	 * 
+	 * @param node
+	 *            The colored node of the deselected row.
+	 */
+	private void unpurify(int node) {
+		int header = column[node];
+		int nodeColor = color[node];
+		int currentRowNode = up[header];
+		while (currentRowNode != header) {
+			if (color[currentRowNode] < 0) {
+				color[currentRowNode] = nodeColor;
+			} else if (currentRowNode != node) {
+				unhide(currentRowNode);
+			}
+			currentRowNode = up[currentRowNode];
+		}
+	}
+
+	/**
+	 * Sets the strategy choosing the column to branch on at each step of the
+	 * search. The default strategy selects the first column with the smallest
+	 * amount of rows. When a problem is loaded, the strategy is attached to
+	 * its matrix right away.
+	 * 
+	 * @param columnSelection
+	 *            The {@link ca.lavoiedn.DLX.ColumnSelectionStrategy} to use.
+	 */
+	public void setColumnSelection(ColumnSelectionStrategy columnSelection) {
+		if (rowNodes != null) {
+			// The loaded matrix is taken back to its initial state, from which
+			// its columns only shrink, before the new strategy is attached.
+			// The next resolve applies its assumptions again.
+			assume(new int[0], new int[0]);
+			this.columnSelection = columnSelection;
+			attachColumnSelection();
+		} else {
+			this.columnSelection = columnSelection;
 		}
+	}
+
+	/**
+	 * Returns the strategy choosing the column to branch on.
+	 * 
+	 * @return The {@link ca.lavoiedn.DLX.ColumnSelectionStrategy} in use.
+	 */
+	public ColumnSelectionStrategy getColumnSelection() {
+		return columnSelection;
+	}
 
-		return best == null ? start : best;
+	/**
+	 * Sets the recorder following the solves of this search.
+	 * 
+	 * @param recorder
+	 *            The {@link ca.lavoiedn.DLX.SearchRecorder} to call, or
+	 *            <code>null</code> for none.
+	 */
+	public void setRecorder(SearchRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Returns the recorder following the solves of this search.
+	 * 
+	 * @return The {@link ca.lavoiedn.DLX.SearchRecorder} in use, or
+	 *         <code>null</code>.
+	 */
+	public SearchRecorder getRecorder() {
+		return recorder;
+	}
+
+	/**
+	 * Returns a copy of the recorder found on the class path.
+	 * 
+	 * @return A new recorder, or <code>null</code> if none was found.
+	 */
+	static SearchRecorder newDefaultRecorder() {
+		return DEFAULT_RECORDER == null ? null : DEFAULT_RECORDER.copy();
+	}
+
+	/**
+	 * Finds the first {@link ca.lavoiedn.DLX.SearchRecorder} provided on the
+	 * class path.
+	 * 
+	 * @return The recorder found, or <code>null</code>.
+	 */
+	private static SearchRecorder loadRecorder() {
+		Iterator<SearchRecorder> recorders = ServiceLoader.load(
+				SearchRecorder.class).iterator();
+		return recorders.hasNext() ? recorders.next() : null;
+	}
+
+	/**
+	 * Sets the listener receiving the progress of the following searches.
+	 * The progress is reported along with the check of the limits, so at most
+	 * once every <code>SearchLimits.getCheckInterval()</code> steps of the
+	 * search.
+	 * 
+	 * @param listener
+	 *            The {@link ca.lavoiedn.DLX.ProgressListener} to call, or
+	 *            <code>null</code> for none.
+	 * @param nodeInterval
+	 *            The number of nodes explored between two reports, or
+	 *            <code>0</code>.
+	 * @param timeInterval
+	 *            The time between two reports, or <code>0</code>.
+	 * @param unit
+	 *            The unit of <code>timeInterval</code>.
+	 */
+	public void setProgressListener(ProgressListener listener,
+			long nodeInterval, long timeInterval, TimeUnit unit) {
+		progressListener = listener;
+		progressNodes = nodeInterval;
+		progressTime = unit.toNanos(timeInterval);
+		if (progress == null) {
+			progress = new SearchProgress();
+		}
+	}
+
+	/**
+	 * Sets the budget of the following searches.
+	 * 
+	 * @param limits
+	 *            The {@link ca.lavoiedn.DLX.SearchLimits} of the search.
+	 */
+	public void setLimits(SearchLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Returns the budget of the searches.
+	 * 
+	 * @return The {@link ca.lavoiedn.DLX.SearchLimits} of the search.
+	 */
+	public SearchLimits getLimits() {
+		return limits;
+	}
+
+	/**
+	 * Sets the token through which the following searches can be cancelled.
+	 * 
+	 * @param cancellationToken
+	 *            The {@link ca.lavoiedn.DLX.CancellationToken} to poll, or
+	 *            <code>null</code>.
+	 */
+	public void setCancellationToken(CancellationToken cancellationToken) {
+		this.cancellationToken = cancellationToken;
+	}
+
+	/**
+	 * Returns why the last search stopped.
+	 * 
+	 * @return The {@link ca.lavoiedn.DLX.SearchStatus} of the last search.
+	 */
+	public SearchStatus getStatus() {
+		return status;
 	}
 
 	/**
-	 * Returns a map containing the metrics associated with this research.
+	 * Returns the metrics of the last solve. The same object is reset and
+	 * filled again by every solve of this search.
 	 * 
-	 * @return A map containing the metrics associated with this research.
+	 * @return The {@link ca.lavoiedn.DLX.SearchMetrics} of this search.
 	 */
-	public Map<String, Long> getMetrics() {
+	public SearchMetrics getMetrics() {
 		return metrics;
 	}
 
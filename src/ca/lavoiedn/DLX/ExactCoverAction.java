@@ -1,7 +1,5 @@
 package ca.lavoiedn.DLX;
 
-import ca.lavoiedn.ToroidalList.ToroidalNode;
-
 /**
  * Abstract class for actions on an {@link ca.lavoiedn.DLX.ExactCoverProblem}.
  * 
@@ -17,8 +15,8 @@ public abstract class ExactCoverAction {
 		setFromConstraintKeys(keys);
 	}
 
-	public ExactCoverAction(ToroidalNode node) {
-		setFromToroidalNode(node);
+	public ExactCoverAction(DancingLinkList matrix, int node) {
+		setFromNode(matrix, node);
 	}
 
 	/**
@@ -40,16 +38,18 @@ public abstract class ExactCoverAction {
 	protected abstract boolean setFromConstraintKeys(String[] keys);
 
 	/**
-	 * Sets this action's values from the given
-	 * {@link ca.lavoiedn.ToroidalList.ToroidalNode}, which requires exploring a
-	 * full row.
+	 * Sets this action's values from the given node of a
+	 * {@link ca.lavoiedn.DLX.DancingLinkList}, which requires exploring a full
+	 * row.
 	 * 
+	 * @param matrix
+	 *            The {@link ca.lavoiedn.DLX.DancingLinkList} holding the node.
 	 * @param node
-	 *            The given {@link ca.lavoiedn.ToroidalList.ToroidalNode}.
+	 *            The index of the given node.
 	 * @return <code>true</code> if the <code>node</code> contained a valid key
 	 *         for this action, else <code>false</code>.
 	 */
-	protected abstract boolean setFromToroidalNode(ToroidalNode node);
+	protected abstract boolean setFromNode(DancingLinkList matrix, int node);
 
 	/**
 	 * Returns the constraint keys corresponding to this action.
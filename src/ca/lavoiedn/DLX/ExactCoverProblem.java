@@ -2,8 +2,6 @@ package ca.lavoiedn.DLX;
 
 import java.util.List;
 
-import ca.lavoiedn.ToroidalList.ToroidalNode;
-
 /**
  * The abstract class representing exact cover problems.
  * 
@@ -26,15 +24,15 @@ public abstract class ExactCoverProblem implements Cloneable {
 	
 	
 	/**
-	 * Returns the {@link ca.lavoiedn.DLX.ExactCoverAction} associated with this
-	 * <code>ExactCoverProblem</code>.
+	 * Returns the {@link ca.lavoiedn.DLX.ExactCoverAction} associated with the
+	 * given row of this problem's sparse matrix.
 	 * 
-	 * @param node
-	 *            The {@link ca.lavoiedn.ToroidalList.DLC.ToroidalNode} used to build the action.
-	 * @return The generic {@link ca.lavoiedn.DLX.ExactCoverAction} associated
-	 *         with this <code>ExactCoverProblem</code>.
+	 * @param row
+	 *            The id of the row, in the order the rows were added to the
+	 *            sparse matrix.
+	 * @return The {@link ca.lavoiedn.DLX.ExactCoverAction} selecting this row.
 	 */
-	public abstract ExactCoverAction getSpecificAction(ToroidalNode node);
+	public abstract ExactCoverAction getSpecificAction(int row);
 
 	/**
 	 * Returns the sparse matrix representing this problem.
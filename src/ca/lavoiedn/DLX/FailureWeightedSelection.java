@@ -0,0 +1,96 @@
+package ca.lavoiedn.DLX;
+
+/**
+ * Selects the column with the smallest ratio between its amount of rows and
+ * its weight. The weight of a column starts at one and grows each time the
+ * column ends a branch of the search, so the search learns to branch first on
+ * the constraints that fail the most. Columns of the same ratio are told apart
+ * by their order in the list.
+ * 
+ * @author lavoiedn
+ */
+public class FailureWeightedSelection implements ColumnSelectionStrategy {
+
+	private int[] failures;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * ca.lavoiedn.DLX.ColumnSelectionStrategy#attach(ca.lavoiedn.DLX.DancingLinkList
+	 * )
+	 */
+	@Override
+	public void attach(DancingLinkList matrix) {
+		failures = new int[matrix.getColumnCount() + 1];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * ca.lavoiedn.DLX.ColumnSelectionStrategy#select(ca.lavoiedn.DLX.DancingLinkList
+	 * )
+	 */
+	@Override
+	public int select(DancingLinkList matrix) {
+		int[] right = matrix.right;
+		int[] size = matrix.size;
+		int start = matrix.getHead();
+
+		int current = right[start];
+		int best = -1;
+		long bestSize = 1;
+		long bestWeight = 0;
+
+		while (current != start) {
+			// A column without rows ends the branch whatever its weight.
+			if (size[current] == 0) {
+				return current;
+			}
+			// Compares size / weight without dividing.
+			long weight = 1L + failures[current];
+			if (best == -1 || size[current] * bestWeight < bestSize * weight) {
+				best = current;
+				bestSize = size[current];
+				bestWeight = weight;
+			}
+			current = right[current];
+		}
+
+		return best == -1 ? start : best;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see ca.lavoiedn.DLX.ColumnSelectionStrategy#failed(int)
+	 */
+	@Override
+	public void failed(int header) {
+		if (failures[header] < Integer.MAX_VALUE) {
+			failures[header]++;
+		}
+	}
+
+	/**
+	 * Returns the number of times the given column ended a branch.
+	 * 
+	 * @param header
+	 *            The index of a column header.
+	 * @return The number of failures recorded for this column.
+	 */
+	public int getFailures(int header) {
+		return failures[header];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see ca.lavoiedn.DLX.ColumnSelectionStrategy#copy()
+	 */
+	@Override
+	public FailureWeightedSelection copy() {
+		return new FailureWeightedSelection();
+	}
+}
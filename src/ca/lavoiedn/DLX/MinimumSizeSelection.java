@@ -0,0 +1,138 @@
+package ca.lavoiedn.DLX;
+
+import java.util.Random;
+
+/**
+ * Selects the column with the smallest amount of rows associated to it, which
+ * keeps the search tree small. Columns of equal size are told apart by a
+ * configurable tie-break.
+ * 
+ * @author lavoiedn
+ */
+public class MinimumSizeSelection implements ColumnSelectionStrategy {
+
+	/**
+	 * How to choose between columns of the same size.
+	 */
+	public enum TieBreak {
+		/** The first column in the list. */
+		FIRST,
+		/** The last column in the list. */
+		LAST,
+		/** A column chosen at random, with a uniform distribution. */
+		RANDOM
+	}
+
+	private final TieBreak tieBreak;
+	private final Random random;
+
+	/**
+	 * Constructor for a strategy that breaks ties with the first column.
+	 */
+	public MinimumSizeSelection() {
+		this(TieBreak.FIRST);
+	}
+
+	/**
+	 * Constructor for a strategy with the given tie-break. A random tie-break
+	 * uses a random seed.
+	 * 
+	 * @param tieBreak
+	 *            How to choose between columns of the same size.
+	 */
+	public MinimumSizeSelection(TieBreak tieBreak) {
+		this.tieBreak = tieBreak;
+		random = tieBreak == TieBreak.RANDOM ? new Random() : null;
+	}
+
+	/**
+	 * Constructor for a strategy that breaks ties at random, with the given
+	 * seed, so that runs can be reproduced.
+	 * 
+	 * @param seed
+	 *            The seed of the random tie-break.
+	 */
+	public MinimumSizeSelection(long seed) {
+		tieBreak = TieBreak.RANDOM;
+		random = new Random(seed);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * ca.lavoiedn.DLX.ColumnSelectionStrategy#attach(ca.lavoiedn.DLX.DancingLinkList
+	 * )
+	 */
+	@Override
+	public void attach(DancingLinkList matrix) {
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * ca.lavoiedn.DLX.ColumnSelectionStrategy#select(ca.lavoiedn.DLX.DancingLinkList
+	 * )
+	 */
+	@Override
+	public int select(DancingLinkList matrix) {
+		int[] right = matrix.right;
+		int[] size = matrix.size;
+		int start = matrix.getHead();
+
+		int current = right[start];
+		int best = -1;
+		int bestSize = Integer.MAX_VALUE;
+		int ties = 0;
+
+		while (current != start) {
+			int currentSize = size[current];
+			if (currentSize < bestSize) {
+				bestSize = currentSize;
+				best = current;
+				ties = 1;
+			} else if (currentSize == bestSize) {
+				switch (tieBreak) {
+				case LAST:
+					best = current;
+					break;
+				case RANDOM:
+					// Reservoir sampling over the columns of the best size.
+					ties++;
+					if (random.nextInt(ties) == 0) {
+						best = current;
+					}
+					break;
+				default:
+					break;
+				}
+			}
+			current = right[current];
+		}
+
+		return best == -1 ? start : best;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see ca.lavoiedn.DLX.ColumnSelectionStrategy#failed(int)
+	 */
+	@Override
+	public void failed(int header) {
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see ca.lavoiedn.DLX.ColumnSelectionStrategy#copy()
+	 */
+	@Override
+	public MinimumSizeSelection copy() {
+		if (random != null) {
+			return new MinimumSizeSelection(random.nextLong());
+		}
+		return new MinimumSizeSelection(tieBreak);
+	}
+}
@@ -0,0 +1,478 @@
+package ca.lavoiedn.DLX;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A parallel version of the {@link ca.lavoiedn.DLX.DancingLinksSearch}, running
+ * on a <code>ForkJoinPool</code>.
+ * 
+ * Every worker thread owns its own copy of the sparse matrix. A task is a
+ * subtree of the search, described by the rows chosen to reach it; the worker
+ * running it selects these rows on its copy before searching. While it
+ * searches the upper levels of its subtree, a worker hands the remaining rows
+ * of the current column to new tasks whenever the pool runs short of queued
+ * work, so idle workers can steal them. The solution count and the stop signal
+ * are shared between workers through atomic variables.
+ * 
+ * The limits and the cancellation token of the search apply to the whole
+ * search: the node limit counts the nodes of every worker, and the first
+ * worker to reach a limit stops the others. A worker adds its nodes to the
+ * shared count when it checks the limits, once per check interval, and before
+ * it hands off a subtree. The search may therefore go past the node limit by
+ * up to the nodes that each worker explores in one check interval; a smaller
+ * check interval gives a tighter bound.
+ * 
+ * The {@link ca.lavoiedn.DLX.SolutionListener} given to this search is called
+ * from several threads at once and must be thread-safe.
+ * 
+ * @author lavoiedn
+ */
+
+public class ParallelDancingLinksSearch {
+
+	/**
+	 * Number of queued tasks a worker keeps before it stops splitting its
+	 * subtree.
+	 */
+	private static final int SURPLUS_THRESHOLD = 2;
+	private static final int DEFAULT_SPLIT_DEPTH = 12;
+
+	private final ForkJoinPool pool;
+	private int splitDepth;
+	private ColumnSelectionStrategy columnSelection = new MinimumSizeSelection();
+	private SearchLimits limits = new SearchLimits();
+	private CancellationToken cancellationToken;
+	private SearchRecorder recorder = DancingLinksSearch.newDefaultRecorder();
+
+	private ExactCoverProblem problem;
+	private DancingLinkList initialMatrix;
+	private SolutionListener listener;
+	private long limit;
+	private Map<Thread, Worker> workers;
+
+	private AtomicLong solutions;
+	private AtomicLong nodes;
+	private AtomicBoolean stop;
+	private AtomicReference<SearchStatus> interruption;
+	private AtomicBoolean depthCut;
+	private long deadline;
+	private SearchStatus status;
+
+	private final SearchMetrics metrics = new SearchMetrics();
+
+	/**
+	 * Constructor for a search using one thread per available processor.
+	 */
+	public ParallelDancingLinksSearch() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor for a search using the given number of threads.
+	 * 
+	 * @param parallelism
+	 *            The number of worker threads.
+	 */
+	public ParallelDancingLinksSearch(int parallelism) {
+		this(new ForkJoinPool(parallelism));
+	}
+
+	/**
+	 * Constructor for a search running on the given pool.
+	 * 
+	 * @param pool
+	 *            The <code>ForkJoinPool</code> running the search.
+	 */
+	public ParallelDancingLinksSearch(ForkJoinPool pool) {
+		this.pool = pool;
+		splitDepth = DEFAULT_SPLIT_DEPTH;
+	}
+
+	/**
+	 * Sets the number of levels, from the top of the search tree, at which the
+	 * search may be split between workers.
+	 * 
+	 * @param splitDepth
+	 *            The number of levels that may be split.
+	 */
+	public void setSplitDepth(int splitDepth) {
+		this.splitDepth = splitDepth;
+	}
+
+	/**
+	 * Sets the strategy choosing the column to branch on. Every worker uses its
+	 * own copy of the strategy.
+	 * 
+	 * @param columnSelection
+	 *            The {@link ca.lavoiedn.DLX.ColumnSelectionStrategy} to use.
+	 */
+	public void setColumnSelection(ColumnSelectionStrategy columnSelection) {
+		this.columnSelection = columnSelection;
+	}
+
+	/**
+	 * Sets the budget of the following searches.
+	 * 
+	 * @param limits
+	 *            The {@link ca.lavoiedn.DLX.SearchLimits} of the search.
+	 */
+	public void setLimits(SearchLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Sets the token through which the following searches can be cancelled.
+	 * 
+	 * @param cancellationToken
+	 *            The {@link ca.lavoiedn.DLX.CancellationToken} to poll, or
+	 *            <code>null</code>.
+	 */
+	public void setCancellationToken(CancellationToken cancellationToken) {
+		this.cancellationToken = cancellationToken;
+	}
+
+	/**
+	 * Sets the recorder following the solves of this search. Each worker
+	 * reports its verifications to a copy of it.
+	 * 
+	 * @param recorder
+	 *            The {@link ca.lavoiedn.DLX.SearchRecorder} to call, or
+	 *            <code>null</code> for none.
+	 */
+	public void setRecorder(SearchRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Returns why the last search stopped.
+	 * 
+	 * @return The {@link ca.lavoiedn.DLX.SearchStatus} of the last search.
+	 */
+	public SearchStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * Solves the given {@link ca.lavoiedn.DLX.ExactCoverProblem}, stopping at
+	 * the first solution found.
+	 * 
+	 * @param problem
+	 *            The {@link ca.lavoiedn.DLX.ExactCoverProblem} to solve.
+	 * @return A list of actions to solve the given <code>problem</code>, or an
+	 *         empty list if it has no solution.
+	 */
+	public List<ExactCoverAction> solve(ExactCoverProblem problem) {
+		final List<ExactCoverAction> solution = new LinkedList<ExactCoverAction>();
+		solve(problem, 1, new SolutionListener() {
+			@Override
+			public void solutionFound(List<ExactCoverAction> found) {
+				synchronized (solution) {
+					solution.addAll(found);
+				}
+			}
+		});
+		return solution;
+	}
+
+	/**
+	 * Counts the solutions of the given
+	 * {@link ca.lavoiedn.DLX.ExactCoverProblem}, up to the given limit.
+	 * 
+	 * @param problem
+	 *            The {@link ca.lavoiedn.DLX.ExactCoverProblem} to solve.
+	 * @param limit
+	 *            The number of solutions after which the search stops, or
+	 *            <code>DancingLinksSearch.ALL_SOLUTIONS</code>.
+	 * @return The number of solutions found.
+	 */
+	public long countSolutions(ExactCoverProblem problem, long limit) {
+		return solve(problem, limit, null);
+	}
+
+	/**
+	 * Solves the given {@link ca.lavoiedn.DLX.ExactCoverProblem}, handing every
+	 * solution to the given listener as soon as it is found.
+	 * 
+	 * @param problem
+	 *            The {@link ca.lavoiedn.DLX.ExactCoverProblem} to solve.
+	 * @param limit
+	 *            The number of solutions after which the search stops, or
+	 *            <code>DancingLinksSearch.ALL_SOLUTIONS</code>.
+	 * @param listener
+	 *            The thread-safe {@link ca.lavoiedn.DLX.SolutionListener}
+	 *            receiving the solutions. If it is <code>null</code>, the
+	 *            solutions are only counted.
+	 * @return The number of solutions found.
+	 */
+	public long solve(ExactCoverProblem problem, long limit,
+			SolutionListener listener) {
+		long allocated = SearchMetrics.getThreadAllocatedBytes();
+		long time = System.nanoTime();
+		metrics.reset();
+		deadline = DancingLinksSearch.getDeadline(limits);
+		if (recorder != null) {
+			recorder.solveStarted();
+			recorder.phaseStarted(SearchMetrics.Phase.BUILD);
+		}
+
+		this.problem = problem;
+		this.listener = listener;
+		this.limit = limit;
+		solutions = new AtomicLong();
+		nodes = new AtomicLong();
+		stop = new AtomicBoolean(limit <= 0);
+		interruption = new AtomicReference<SearchStatus>();
+		depthCut = new AtomicBoolean();
+
+		DancingLinkList matrix = problem.getSparseMatrix();
+		long now = System.nanoTime();
+		metrics.addTime(SearchMetrics.Phase.BUILD, now - time);
+		time = now;
+		if (recorder != null) {
+			recorder.phaseEnded(SearchMetrics.Phase.BUILD);
+			recorder.phaseStarted(SearchMetrics.Phase.INITIAL_STATE);
+		}
+
+		DancingLinksSearch primer = new DancingLinksSearch();
+		primer.attach(problem, matrix, null);
+		primer.applyInitialState();
+		initialMatrix = primer.getSparseMatrix();
+		metrics.initialConstraints = primer.getMetrics().initialConstraints;
+		int[] toroidSize = initialMatrix.size();
+		metrics.matrixSize = toroidSize[0] + toroidSize[1];
+		now = System.nanoTime();
+		metrics.addTime(SearchMetrics.Phase.INITIAL_STATE, now - time);
+		time = now;
+		if (recorder != null) {
+			recorder.phaseEnded(SearchMetrics.Phase.INITIAL_STATE);
+		}
+
+		// The workers are only referenced from this map, not from the pool's
+		// threads, so their matrices are freed with it after the solve.
+		workers = new ConcurrentHashMap<Thread, Worker>();
+		pool.invoke(new SubtreeTask(new int[0]));
+		Map<Thread, Worker> created = workers;
+		workers = null;
+		initialMatrix = null;
+
+		long found = Math.min(solutions.get(), limit);
+		status = DancingLinksSearch.getStatus(interruption.get(),
+				found >= limit, depthCut.get());
+
+		// The workers add up their verification time, and how much they
+		// allocated; the search time is the time the pool took.
+		long searchTime = System.nanoTime() - time;
+		for (Worker worker : created.values()) {
+			worker.recordMetrics();
+			metrics.merge(worker.getMetrics());
+		}
+		metrics.addTime(SearchMetrics.Phase.SEARCH, searchTime);
+		metrics.nodesExplored = nodes.get();
+		metrics.solutions = found;
+		metrics.solves = 1;
+		metrics.allocatedBytes += SearchMetrics.getThreadAllocatedBytes()
+				- allocated;
+		if (recorder != null) {
+			recorder.solveEnded(problem, metrics, status);
+		}
+
+		return found;
+	}
+
+	/**
+	 * Returns the metrics of the last solve, with the counters of every worker
+	 * added up.
+	 * 
+	 * @return The {@link ca.lavoiedn.DLX.SearchMetrics} of this search.
+	 */
+	public SearchMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Releases the worker threads of this search.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * The search state owned by one worker thread, on its own copy of the
+	 * matrix.
+	 */
+	private class Worker extends DancingLinksSearch {
+
+		private SubtreeTask task;
+		private long published;
+
+		Worker() {
+			setColumnSelection(columnSelection.copy());
+			setLimits(limits);
+			setCancellationToken(cancellationToken);
+			setRecorder(recorder == null ? null : recorder.copy());
+			attach(problem, new DancingLinkList(initialMatrix), listener);
+			splitDepth = ParallelDancingLinksSearch.this.splitDepth;
+			stop = ParallelDancingLinksSearch.this.stop;
+			deadline = ParallelDancingLinksSearch.this.deadline;
+		}
+
+		/**
+		 * Searches the given subtree, then restores the matrix.
+		 * 
+		 * @param task
+		 *            The subtree to search.
+		 */
+		void run(SubtreeTask task) {
+			this.task = task;
+			long allocated = SearchMetrics.getThreadAllocatedBytes();
+			for (int row : task.path) {
+				select(row);
+			}
+			while (search()) {
+				long found = solutions.incrementAndGet();
+				if (found > limit) {
+					stop.set(true);
+				} else if (!addSolution()) {
+					solutions.decrementAndGet();
+				} else if (found == limit) {
+					stop.set(true);
+				}
+			}
+			for (int i = task.path.length - 1; i >= 0; i--) {
+				deselect(task.path[i]);
+			}
+			countNodes();
+			if (isDepthCut()) {
+				depthCut.set(true);
+			}
+			getMetrics().allocatedBytes += SearchMetrics
+					.getThreadAllocatedBytes() - allocated;
+			this.task = null;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see ca.lavoiedn.DLX.DancingLinksSearch#countNodes()
+		 */
+		@Override
+		long countNodes() {
+			long explored = getNodesExplored();
+			long total = nodes.addAndGet(explored - published);
+			published = explored;
+			return total;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * ca.lavoiedn.DLX.DancingLinksSearch#interrupt(ca.lavoiedn.DLX.SearchStatus
+		 * )
+		 */
+		@Override
+		void interrupt(SearchStatus reached) {
+			interruption.compareAndSet(null, reached);
+			stop.set(true);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see ca.lavoiedn.DLX.DancingLinksSearch#split(int[], int, int)
+		 */
+		@Override
+		boolean split(int[] path, int depth, int row) {
+			if (task.path.length + depth >= splitDepth
+					|| ForkJoinTask.getSurplusQueuedTaskCount() > SURPLUS_THRESHOLD) {
+				return false;
+			}
+			// Publishes the nodes of this worker first, so no subtree is
+			// handed off once the shared node limit is reached.
+			if (limitReached()) {
+				return false;
+			}
+			DancingLinkList matrix = getSparseMatrix();
+			int header = matrix.getHeader(row);
+			int[] prefix = Arrays.copyOf(task.path, task.path.length + depth
+					+ 1);
+			System.arraycopy(path, 0, prefix, task.path.length, depth);
+			for (int next = matrix.getDown(row); next != header; next = matrix
+					.getDown(next)) {
+				int[] subtree = prefix.clone();
+				subtree[subtree.length - 1] = next;
+				task.fork(new SubtreeTask(subtree));
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Returns the worker of the current thread for this solve, creating it the
+	 * first time the thread runs a task.
+	 * 
+	 * @return The {@link Worker} of the current thread.
+	 */
+	private Worker getWorker() {
+		// Only the current thread adds its own entry.
+		Worker worker = workers.get(Thread.currentThread());
+		if (worker == null) {
+			worker = new Worker();
+			workers.put(Thread.currentThread(), worker);
+		}
+		return worker;
+	}
+
+	/**
+	 * A subtree of the search, given by the rows chosen to reach it.
+	 */
+	private class SubtreeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] path;
+		private List<SubtreeTask> forked;
+
+		SubtreeTask(int[] path) {
+			this.path = path;
+		}
+
+		void fork(SubtreeTask subtree) {
+			if (forked == null) {
+				forked = new ArrayList<SubtreeTask>();
+			}
+			forked.add(subtree);
+			subtree.fork();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			if (!stop.get()) {
+				getWorker().run(this);
+			}
+			// The worker's matrix is restored at this point, so it may run the
+			// subtrees it handed off while waiting for them.
+			if (forked != null) {
+				for (SubtreeTask subtree : forked) {
+					subtree.join();
+				}
+			}
+		}
+	}
+}
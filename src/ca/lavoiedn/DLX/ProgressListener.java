@@ -0,0 +1,19 @@
+package ca.lavoiedn.DLX;
+
+/**
+ * Receives the progress of a long {@link ca.lavoiedn.DLX.DancingLinksSearch}
+ * at regular intervals.
+ * 
+ * @author lavoiedn
+ */
+public interface ProgressListener {
+
+	/**
+	 * Called from the thread of the search, with the search paused.
+	 * 
+	 * @param progress
+	 *            The state of the search. The same object is reused for every
+	 *            call, so it must not be kept.
+	 */
+	void progress(SearchProgress progress);
+}
@@ -0,0 +1,107 @@
+package ca.lavoiedn.DLX;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The budget of a {@link ca.lavoiedn.DLX.DancingLinksSearch}: how long it may
+ * run, how many nodes it may explore and how deep it may go. A limit of
+ * <code>0</code> means no limit.
+ * 
+ * The time, node and cancellation limits are only checked every
+ * <code>checkInterval</code> steps of the search, to keep their cost out of
+ * the search loop, so a search may overshoot them by that many steps.
+ * 
+ * @author lavoiedn
+ */
+public class SearchLimits {
+
+	public static final int DEFAULT_CHECK_INTERVAL = 1024;
+
+	private long timeLimit;
+	private long nodeLimit;
+	private int depthLimit;
+	private int checkInterval = DEFAULT_CHECK_INTERVAL;
+
+	/**
+	 * Returns the time the search may run for.
+	 * 
+	 * @return The time limit in nanoseconds, or <code>0</code>.
+	 */
+	public long getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * Sets the time the search may run for, from the start of the solve.
+	 * 
+	 * @param time
+	 *            The time limit, or <code>0</code> for no limit.
+	 * @param unit
+	 *            The unit of <code>time</code>.
+	 */
+	public void setTimeLimit(long time, TimeUnit unit) {
+		timeLimit = unit.toNanos(time);
+	}
+
+	/**
+	 * Returns the number of nodes the search may explore.
+	 * 
+	 * @return The node limit, or <code>0</code>.
+	 */
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+
+	/**
+	 * Sets the number of nodes the search may explore, as counted by
+	 * {@link ca.lavoiedn.DLX.SearchMetrics#getNodesExplored()}. The limit is
+	 * checked once per check interval, so a search stops up to one interval
+	 * past it, or one interval per worker for a parallel search.
+	 * 
+	 * @param nodeLimit
+	 *            The node limit, or <code>0</code> for no limit.
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		this.nodeLimit = nodeLimit;
+	}
+
+	/**
+	 * Returns the number of rows a branch of the search may choose.
+	 * 
+	 * @return The depth limit, or <code>0</code>.
+	 */
+	public int getDepthLimit() {
+		return depthLimit;
+	}
+
+	/**
+	 * Sets the number of rows a branch of the search may choose. Deeper
+	 * branches are cut, but the rest of the tree is still explored.
+	 * 
+	 * @param depthLimit
+	 *            The depth limit, or <code>0</code> for no limit.
+	 */
+	public void setDepthLimit(int depthLimit) {
+		this.depthLimit = depthLimit;
+	}
+
+	/**
+	 * Returns the number of search steps between two checks of the limits.
+	 * 
+	 * @return The number of steps between two checks.
+	 */
+	public int getCheckInterval() {
+		return checkInterval;
+	}
+
+	/**
+	 * Sets the number of search steps between two checks of the time limit,
+	 * the node limit and the cancellation token.
+	 * 
+	 * @param checkInterval
+	 *            The number of steps between two checks.
+	 */
+	public void setCheckInterval(int checkInterval) {
+		this.checkInterval = Math.max(1, checkInterval);
+	}
+}
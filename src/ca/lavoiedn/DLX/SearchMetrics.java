@@ -0,0 +1,292 @@
+package ca.lavoiedn.DLX;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * The metrics of a {@link ca.lavoiedn.DLX.DancingLinksSearch}: the time spent
+ * in each phase of the solve, measured with <code>System.nanoTime</code>, the
+ * nodes explored and the links updated, the search nodes at each depth, and
+ * the bytes allocated by the thread of the solve.
+ * 
+ * A search keeps the same metrics object from one solve to the next, and
+ * resets it at the start of each solve. The metrics of several solves, or of
+ * several threads, can be added up with <code>merge</code>.
+ * 
+ * @author lavoiedn
+ */
+
+public class SearchMetrics {
+
+	/**
+	 * The phases of a solve.
+	 */
+	public enum Phase {
+		/**
+		 * Building the sparse matrix of the problem.
+		 */
+		BUILD,
+		/**
+		 * Exploring the constraints of the initial state.
+		 */
+		INITIAL_STATE,
+		/**
+		 * Searching for solutions.
+		 */
+		SEARCH,
+		/**
+		 * Checking the solutions found and handing them to the listener.
+		 */
+		VERIFICATION
+	}
+
+	private static final ThreadMXBean THREADS = ManagementFactory
+			.getThreadMXBean();
+
+	private final long[] phaseTimes = new long[Phase.values().length];
+	long[] nodesPerDepth = new long[0];
+	long nodesExplored;
+	long updates;
+	long solutions;
+	long initialConstraints;
+	long matrixSize;
+	long allocatedBytes;
+	long solves;
+
+	/**
+	 * Constructor for empty metrics.
+	 */
+	public SearchMetrics() {
+	}
+
+	/**
+	 * Copy constructor.
+	 * 
+	 * @param other
+	 *            The metrics to copy.
+	 */
+	public SearchMetrics(SearchMetrics other) {
+		merge(other);
+	}
+
+	/**
+	 * Clears every metric, keeping the memory of the depth counters.
+	 */
+	public void reset() {
+		Arrays.fill(phaseTimes, 0);
+		Arrays.fill(nodesPerDepth, 0);
+		nodesExplored = 0;
+		updates = 0;
+		solutions = 0;
+		initialConstraints = 0;
+		matrixSize = 0;
+		allocatedBytes = 0;
+		solves = 0;
+	}
+
+	/**
+	 * Adds the given metrics to these ones. The other metrics must not be
+	 * changing, for instance because the thread of their search is done.
+	 * 
+	 * @param other
+	 *            The metrics to add.
+	 */
+	public synchronized void merge(SearchMetrics other) {
+		for (int i = 0; i < phaseTimes.length; i++) {
+			phaseTimes[i] += other.phaseTimes[i];
+		}
+		ensureDepth(other.nodesPerDepth.length);
+		for (int i = 0; i < other.nodesPerDepth.length; i++) {
+			nodesPerDepth[i] += other.nodesPerDepth[i];
+		}
+		nodesExplored += other.nodesExplored;
+		updates += other.updates;
+		solutions += other.solutions;
+		initialConstraints += other.initialConstraints;
+		matrixSize += other.matrixSize;
+		allocatedBytes += other.allocatedBytes;
+		solves += other.solves;
+	}
+
+	/**
+	 * Makes room for the search nodes of the given number of depths.
+	 * 
+	 * @param depths
+	 *            The number of depths to count.
+	 */
+	void ensureDepth(int depths) {
+		if (nodesPerDepth.length < depths) {
+			nodesPerDepth = Arrays.copyOf(nodesPerDepth, depths);
+		}
+	}
+
+	/**
+	 * Adds time to a phase.
+	 * 
+	 * @param phase
+	 *            The phase.
+	 * @param nanos
+	 *            The time spent in the phase, in nanoseconds.
+	 */
+	void addTime(Phase phase, long nanos) {
+		phaseTimes[phase.ordinal()] += nanos;
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far, if
+	 * the virtual machine can measure it.
+	 * 
+	 * @return The bytes allocated by the current thread, or <code>0</code>.
+	 */
+	static long getThreadAllocatedBytes() {
+		if (THREADS instanceof com.sun.management.ThreadMXBean) {
+			long allocated = ((com.sun.management.ThreadMXBean) THREADS)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+			return allocated < 0 ? 0 : allocated;
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the time spent in a phase.
+	 * 
+	 * @param phase
+	 *            The phase.
+	 * @return The time, in nanoseconds.
+	 */
+	public long getTime(Phase phase) {
+		return phaseTimes[phase.ordinal()];
+	}
+
+	/**
+	 * Returns the time spent in every phase.
+	 * 
+	 * @return The elapsed time, in nanoseconds.
+	 */
+	public long getElapsedTime() {
+		long elapsed = 0;
+		for (long time : phaseTimes) {
+			elapsed += time;
+		}
+		return elapsed;
+	}
+
+	/**
+	 * Returns the number of nodes explored, which is also what the node limit
+	 * of {@link ca.lavoiedn.DLX.SearchLimits} counts.
+	 * 
+	 * @return The number of nodes explored.
+	 */
+	public long getNodesExplored() {
+		return nodesExplored;
+	}
+
+	/**
+	 * Returns the number of updates, as counted by Knuth: the number of nodes
+	 * and headers removed from their list, including those of the initial
+	 * state.
+	 * 
+	 * @return The number of updates.
+	 */
+	public long getUpdates() {
+		return updates;
+	}
+
+	/**
+	 * Returns the number of solutions found.
+	 * 
+	 * @return The number of solutions.
+	 */
+	public long getSolutionsFound() {
+		return solutions;
+	}
+
+	/**
+	 * Returns the number of actions of the initial state.
+	 * 
+	 * @return The number of initial constraints.
+	 */
+	public long getInitialConstraints() {
+		return initialConstraints;
+	}
+
+	/**
+	 * Returns the number of headers and nodes of the primary columns of the
+	 * matrix, once the initial state is explored.
+	 * 
+	 * @return The size of the matrix.
+	 */
+	public long getMatrixSize() {
+		return matrixSize;
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the threads of the solve, or
+	 * <code>0</code> if the virtual machine cannot measure it.
+	 * 
+	 * @return The bytes allocated.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Returns the number of solves these metrics add up.
+	 * 
+	 * @return The number of solves.
+	 */
+	public long getSolveCount() {
+		return solves;
+	}
+
+	/**
+	 * Returns the number of search nodes, that is rows tried, at the given
+	 * depth. The rows of the initial state are not counted.
+	 * 
+	 * @param depth
+	 *            The depth, from <code>0</code>.
+	 * @return The number of search nodes at this depth.
+	 */
+	public long getNodesAtDepth(int depth) {
+		return depth < nodesPerDepth.length ? nodesPerDepth[depth] : 0;
+	}
+
+	/**
+	 * Returns the deepest level reached by the search, as the number of rows
+	 * chosen on the longest path.
+	 * 
+	 * @return The maximum depth.
+	 */
+	public int getMaxDepth() {
+		int depth = nodesPerDepth.length;
+		while (depth > 0 && nodesPerDepth[depth - 1] == 0) {
+			depth--;
+		}
+		return depth;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder metrics = new StringBuilder("{");
+		for (Phase phase : Phase.values()) {
+			metrics.append(phase.name().toLowerCase().replace("_", ""))
+					.append("time=")
+					.append(getTime(phase)).append("ns, ");
+		}
+		metrics.append("nodesexplored=").append(nodesExplored)
+				.append(", updates=").append(updates)
+				.append(", maxdepth=").append(getMaxDepth())
+				.append(", solutionsfound=").append(solutions)
+				.append(", numberinitialconstraints=")
+				.append(initialConstraints).append(", torsize=")
+				.append(matrixSize).append(", allocatedbytes=")
+				.append(allocatedBytes).append('}');
+		return metrics.toString();
+	}
+}
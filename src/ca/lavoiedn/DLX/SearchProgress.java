@@ -0,0 +1,112 @@
+package ca.lavoiedn.DLX;
+
+/**
+ * A snapshot of a running {@link ca.lavoiedn.DLX.DancingLinksSearch}, given
+ * to a {@link ca.lavoiedn.DLX.ProgressListener}.
+ * 
+ * Along with its counters, it gives the position of the search in the upper
+ * levels of its tree: at each of these levels, the index of the row being
+ * tried among the rows of its column. From these, Knuth's estimate of the
+ * fraction of the tree already searched can be computed, as
+ * <code>getEstimatedCompletion</code> does.
+ * 
+ * @author lavoiedn
+ */
+public class SearchProgress {
+
+	/**
+	 * The number of levels whose position is tracked.
+	 */
+	public static final int TRACKED_LEVELS = 16;
+
+	final int[] branch = new int[TRACKED_LEVELS];
+	final int[] branches = new int[TRACKED_LEVELS];
+	int levels;
+	int depth;
+	long nodesExplored;
+	long solutionsFound;
+	long elapsedTime;
+
+	/**
+	 * Returns the current depth of the search.
+	 * 
+	 * @return The number of rows chosen on the current path.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the number of nodes explored so far.
+	 * 
+	 * @return The number of nodes explored.
+	 */
+	public long getNodesExplored() {
+		return nodesExplored;
+	}
+
+	/**
+	 * Returns the number of solutions found so far.
+	 * 
+	 * @return The number of solutions found.
+	 */
+	public long getSolutionsFound() {
+		return solutionsFound;
+	}
+
+	/**
+	 * Returns the time since the solve started.
+	 * 
+	 * @return The elapsed time, in nanoseconds.
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	/**
+	 * Returns the number of upper levels whose position is known.
+	 * 
+	 * @return The number of levels, at most <code>TRACKED_LEVELS</code>.
+	 */
+	public int getLevels() {
+		return levels;
+	}
+
+	/**
+	 * Returns the index of the row being tried at the given level.
+	 * 
+	 * @param level
+	 *            The level, from <code>0</code> to <code>getLevels()</code>.
+	 * @return The index of the row in its column, from <code>0</code>.
+	 */
+	public int getBranch(int level) {
+		return branch[level];
+	}
+
+	/**
+	 * Returns the number of rows of the column searched at the given level.
+	 * 
+	 * @param level
+	 *            The level, from <code>0</code> to <code>getLevels()</code>.
+	 * @return The number of rows to try at this level.
+	 */
+	public int getBranchCount(int level) {
+		return branches[level];
+	}
+
+	/**
+	 * Estimates the fraction of the search tree already searched, assuming
+	 * every subtree of a level is the same size.
+	 * 
+	 * @return The estimate, between <code>0</code> and <code>1</code>.
+	 */
+	public double getEstimatedCompletion() {
+		double completion = 0;
+		double weight = 1;
+		for (int level = 0; level < levels; level++) {
+			weight /= branches[level];
+			completion += branch[level] * weight;
+		}
+		return completion + weight / 2;
+	}
+}
@@ -0,0 +1,58 @@
+package ca.lavoiedn.DLX;
+
+/**
+ * Follows the solves of a {@link ca.lavoiedn.DLX.DancingLinksSearch}, for
+ * instance to emit profiling events. A recorder follows one search at a time,
+ * and is only called at the start and end of a solve and of its phases, never
+ * from the search loop itself.
+ * 
+ * Unless one is set, a search uses a copy of the first recorder found by
+ * <code>java.util.ServiceLoader</code>, if any.
+ * 
+ * @author lavoiedn
+ */
+public interface SearchRecorder {
+
+	/**
+	 * Called when a solve starts.
+	 */
+	void solveStarted();
+
+	/**
+	 * Called when a phase of the solve starts. The search phase is not
+	 * reported on its own, as it covers most of the solve.
+	 * 
+	 * @param phase
+	 *            The phase starting.
+	 */
+	void phaseStarted(SearchMetrics.Phase phase);
+
+	/**
+	 * Called when the phase last started ends.
+	 * 
+	 * @param phase
+	 *            The phase ending.
+	 */
+	void phaseEnded(SearchMetrics.Phase phase);
+
+	/**
+	 * Called when a solve ends.
+	 * 
+	 * @param problem
+	 *            The problem solved.
+	 * @param metrics
+	 *            The metrics of the solve.
+	 * @param status
+	 *            Why the solve stopped.
+	 */
+	void solveEnded(ExactCoverProblem problem, SearchMetrics metrics,
+			SearchStatus status);
+
+	/**
+	 * Returns a recorder with the same settings as this one, but none of its
+	 * state, for use by another search.
+	 * 
+	 * @return A new recorder with the same settings.
+	 */
+	SearchRecorder copy();
+}
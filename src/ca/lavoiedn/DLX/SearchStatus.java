@@ -0,0 +1,41 @@
+package ca.lavoiedn.DLX;
+
+/**
+ * Tells why a {@link ca.lavoiedn.DLX.DancingLinksSearch} stopped.
+ * 
+ * @author lavoiedn
+ */
+public enum SearchStatus {
+
+	/** The whole search tree was explored. */
+	COMPLETED,
+
+	/** The requested number of solutions was found. */
+	SOLUTION_LIMIT,
+
+	/**
+	 * The whole search tree was explored, except for the branches deeper than
+	 * the depth limit.
+	 */
+	DEPTH_LIMIT,
+
+	/** The search ran out of time. */
+	TIME_LIMIT,
+
+	/** The search explored as many nodes as it was allowed to. */
+	NODE_LIMIT,
+
+	/** The search was cancelled through its cancellation token. */
+	CANCELLED;
+
+	/**
+	 * Returns whether or not the search explored every branch it was allowed
+	 * to explore.
+	 * 
+	 * @return <code>true</code> if the search was not interrupted, else
+	 *         <code>false</code>.
+	 */
+	public boolean isComplete() {
+		return this == COMPLETED || this == DEPTH_LIMIT;
+	}
+}
@@ -0,0 +1,21 @@
+package ca.lavoiedn.DLX;
+
+import java.util.List;
+
+/**
+ * Receives the solutions of an {@link ca.lavoiedn.DLX.ExactCoverProblem} as
+ * they are found by a {@link ca.lavoiedn.DLX.DancingLinksSearch}.
+ * 
+ * @author lavoiedn
+ */
+public interface SolutionListener {
+
+	/**
+	 * Called each time the search reaches a solution.
+	 * 
+	 * @param solution
+	 *            The list of actions solving the problem. The list belongs to
+	 *            the listener and is not modified by the search afterwards.
+	 */
+	void solutionFound(List<ExactCoverAction> solution);
+}
@@ -0,0 +1,151 @@
+package ca.lavoiedn.Sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the sudoku boards of a file written by a
+ * {@link ca.lavoiedn.Sudoku.PackedSudokuWriter}, in order or by index.
+ * 
+ * The file is memory-mapped a window of whole boards at a time, and a board is
+ * decoded directly into the array given by the caller.
+ * 
+ * @author lavoiedn
+ * 
+ */
+
+public class PackedSudokuReader implements Closeable {
+
+	private static final int BOARDS_PER_WINDOW = (1 << 26)
+			/ PackedSudokuWriter.BOARD_SIZE;
+
+	private final FileChannel file;
+	private final long count;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private long windowEnd;
+	private long next;
+
+	/**
+	 * Constructor for a reader over the packed file at the given path.
+	 * 
+	 * @param filePath
+	 *            The path of the packed file.
+	 * @throws IOException
+	 *             If the file cannot be opened, or is not a valid packed file.
+	 */
+	public PackedSudokuReader(String filePath) throws IOException {
+		file = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+		try {
+			if (file.size() < PackedSudokuWriter.HEADER_SIZE) {
+				throw new IOException(filePath
+						+ " is not a packed sudoku file.");
+			}
+			ByteBuffer header = file.map(FileChannel.MapMode.READ_ONLY, 0,
+					PackedSudokuWriter.HEADER_SIZE);
+			if (header.getInt() != PackedSudokuWriter.MAGIC) {
+				throw new IOException(filePath
+						+ " is not a packed sudoku file.");
+			}
+			int version = header.getInt();
+			if (version != PackedSudokuWriter.VERSION) {
+				throw new IOException("Unsupported packed sudoku version "
+						+ version + ".");
+			}
+			count = header.getLong();
+			if (file.size() < PackedSudokuWriter.HEADER_SIZE + count
+					* PackedSudokuWriter.BOARD_SIZE) {
+				throw new IOException(filePath + " is truncated.");
+			}
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the number of boards in the file.
+	 * 
+	 * @return The number of boards.
+	 */
+	public long getBoardCount() {
+		return count;
+	}
+
+	/**
+	 * Reads the board at the given index into the given array.
+	 * 
+	 * @param index
+	 *            The index of the board, from <code>0</code>.
+	 * @param board
+	 *            An array of 81 integer, overwritten with the board.
+	 * @throws IOException
+	 *             If the file cannot be read.
+	 */
+	public void read(long index, int[] board) throws IOException {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException("No board at " + index + ".");
+		}
+		if (index < windowStart || index >= windowEnd) {
+			map(index);
+		}
+		int offset = (int) (index - windowStart)
+				* PackedSudokuWriter.BOARD_SIZE;
+		for (int cell = 0; cell < 80; cell += 2) {
+			int cells = window.get(offset++);
+			board[cell] = cells & 0xF;
+			board[cell + 1] = cells >> 4 & 0xF;
+		}
+		board[80] = window.get(offset) & 0xF;
+	}
+
+	/**
+	 * Reads the board following the last one read into the given array.
+	 * 
+	 * @param board
+	 *            An array of 81 integer, overwritten with the next board.
+	 * @return <code>true</code> if a board was read, or <code>false</code> at
+	 *         the end of the file.
+	 * @throws IOException
+	 *             If the file cannot be read.
+	 */
+	public boolean next(int[] board) throws IOException {
+		if (next >= count) {
+			return false;
+		}
+		read(next++, board);
+		return true;
+	}
+
+	/**
+	 * Maps the window of boards containing the given index.
+	 * 
+	 * @param index
+	 *            The index of a board.
+	 * @throws IOException
+	 *             If the file cannot be mapped.
+	 */
+	private void map(long index) throws IOException {
+		windowStart = index - index % BOARDS_PER_WINDOW;
+		windowEnd = Math.min(windowStart + BOARDS_PER_WINDOW, count);
+		window = file.map(FileChannel.MapMode.READ_ONLY,
+				PackedSudokuWriter.HEADER_SIZE + windowStart
+						* PackedSudokuWriter.BOARD_SIZE,
+				(windowEnd - windowStart) * PackedSudokuWriter.BOARD_SIZE);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+}
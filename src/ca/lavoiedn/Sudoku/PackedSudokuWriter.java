@@ -0,0 +1,148 @@
+package ca.lavoiedn.Sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes sudoku boards in the packed binary format read by
+ * {@link ca.lavoiedn.Sudoku.PackedSudokuReader}.
+ * 
+ * The file starts with a header of <code>HEADER_SIZE</code> bytes: the magic
+ * number, the version of the format and the number of boards. The boards
+ * follow, <code>BOARD_SIZE</code> bytes each, with the cells packed two per
+ * byte at 4 bits per cell, the even cell in the low bits. The fixed stride
+ * places board <code>n</code> at <code>HEADER_SIZE + n * BOARD_SIZE</code>.
+ * 
+ * @author lavoiedn
+ * 
+ */
+
+public class PackedSudokuWriter implements Closeable {
+
+	public static final int MAGIC = 0x53444B50;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 16;
+	public static final int BOARD_SIZE = 41;
+
+	private static final int COUNT_OFFSET = 8;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel file;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private long count;
+
+	/**
+	 * Constructor for a writer creating, or replacing, the file at the given
+	 * path.
+	 * 
+	 * @param filePath
+	 *            The path of the packed file.
+	 * @throws IOException
+	 *             If the file cannot be created.
+	 */
+	public PackedSudokuWriter(String filePath) throws IOException {
+		file = FileChannel.open(Paths.get(filePath), StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		buffer.putInt(MAGIC).putInt(VERSION).putLong(0);
+	}
+
+	/**
+	 * Converts a text file of sudoku boards to the packed format.
+	 * 
+	 * @param args
+	 *            Input arguments as such: java PackedSudokuWriter
+	 *            "textFilePath" "packedFilePath"
+	 */
+	public static void main(String[] args) {
+		if (args == null || args.length < 2) {
+			System.out.println("The argument format should be as follow: "
+					+ "\"TextFilePath\" \"PackedFilePath\"");
+			return;
+		}
+		try {
+			System.out.println(SudokuParser.packBoards(args[0], args[1])
+					+ " boards packed.");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Appends a board to the file.
+	 * 
+	 * @param board
+	 *            The sudoku layout, given by an array of 81 integer from
+	 *            <code>0</code> to <code>9</code>.
+	 * @throws IOException
+	 *             If the file cannot be written.
+	 * @throws IllegalArgumentException
+	 *             If the board is not 81 cells from <code>0</code> to
+	 *             <code>9</code>, in which case nothing is written.
+	 */
+	public void write(int[] board) throws IOException {
+		if (board.length != 81) {
+			throw new IllegalArgumentException("A board has 81 cells.");
+		}
+		// A rejected board must not leave half of its bytes in the buffer.
+		for (int cell = 0; cell < 81; cell++) {
+			if (board[cell] < 0 || board[cell] > 9) {
+				throw new IllegalArgumentException("Invalid cell value at "
+						+ cell + ".");
+			}
+		}
+		if (buffer.remaining() < BOARD_SIZE) {
+			flush();
+		}
+		for (int cell = 0; cell < 81; cell += 2) {
+			int high = cell + 1 < 81 ? board[cell + 1] : 0;
+			buffer.put((byte) (board[cell] | high << 4));
+		}
+		count++;
+	}
+
+	/**
+	 * Returns the number of boards written so far.
+	 * 
+	 * @return The number of boards.
+	 */
+	public long getBoardCount() {
+		return count;
+	}
+
+	/**
+	 * Writes the buffered boards to the file.
+	 * 
+	 * @throws IOException
+	 *             If the file cannot be written.
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			file.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+			ByteBuffer header = ByteBuffer.allocate(8);
+			header.putLong(count).flip();
+			while (header.hasRemaining()) {
+				file.write(header, COUNT_OFFSET + header.position());
+			}
+		} finally {
+			file.close();
+		}
+	}
+}
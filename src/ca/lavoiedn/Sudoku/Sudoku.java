@@ -1,8 +1,9 @@
 package ca.lavoiedn.Sudoku;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import ca.lavoiedn.DLX.DancingLinksSearch;
 import ca.lavoiedn.DLX.ExactCoverAction;
@@ -16,7 +17,9 @@ import ca.lavoiedn.DLX.ExactCoverAction;
 
 public class Sudoku {
 
-	private final static String ARG_FORMAT = "\"FilePath\" \"NumberofGames\"";
+	private final static String ALL_GAMES = "all";
+	private final static String BOX_OPTION = "--box=";
+	private final static String ARG_FORMAT = "[--box=BoxSize] \"FilePath\" \"NumberofGames\" [\"NumberOfThreads\" [\"OutputFormat\"]]";
 
 	/**
 	 * Executes the DLX solving algorithm on a certain number of sudoku boards
@@ -25,54 +28,151 @@ public class Sudoku {
 	 * @param args
 	 *            The file containing the sudoku configurations and the
 	 *            algorithm to use. Input arguments as such: java Sudoku
-	 *            "filePath" "numberOfGames"
+	 *            [--box=boxSize] "filePath" "numberOfGames"
+	 *            ["numberOfThreads" ["outputFormat"]]. When a number
+	 *            of threads is given, the boards are solved in batch by a
+	 *            {@link ca.lavoiedn.Sudoku.SudokuBatchSolver}. A number of
+	 *            games of "all" streams every board of the file, or of the
+	 *            standard input when the file path is "-", without loading
+	 *            them first. An output format of "solution" or "csv" writes
+	 *            the results through a
+	 *            {@link ca.lavoiedn.Sudoku.SudokuResultWriter} instead of
+	 *            printing them in full. The option "--box=", given anywhere,
+	 *            reads boards of another box size, from 2 to 8, such as 4 for
+	 *            16 by 16 boards.
 	 */
 	public static void main(String[] args) {
+		int boxSize = SudokuBoard.STANDARD_BOX_SIZE;
+		if (args != null) {
+			List<String> arguments = new ArrayList<String>();
+			for (String arg : args) {
+				if (!arg.startsWith(BOX_OPTION)) {
+					arguments.add(arg);
+					continue;
+				}
+				boxSize = parseBoxSize(arg.substring(BOX_OPTION.length()));
+				if (boxSize == -1) {
+					System.out.println("The box size must be between "
+							+ SudokuBoard.MIN_BOX_SIZE + " and "
+							+ SudokuBoard.MAX_BOX_SIZE
+							+ ". Use the following argument format: "
+							+ ARG_FORMAT);
+					return;
+				}
+			}
+			args = arguments.toArray(new String[arguments.size()]);
+		}
+
 		try {
-			ArrayList<int[]> toSolve;
-			if (args == null || args.length == 0 || args[0] == "help"
-					|| args[0] == "man" || args[0] == "?") {
+			Iterator<int[]> toSolve;
+			SudokuReader reader = null;
+			if (args == null || args.length == 0 || "help".equals(args[0])
+					|| "man".equals(args[0]) || "?".equals(args[0])) {
 				System.out.println("The argument format should be as follow: "
 						+ ARG_FORMAT);
-				toSolve = new ArrayList<int[]>();
+				toSolve = new ArrayList<int[]>().iterator();
+			} else if (ALL_GAMES.equals(args[1])) {
+				reader = SudokuParser.openBoards(args[0], boxSize);
+				toSolve = reader.iterator();
 			} else {
 				toSolve = SudokuParser.randomBoards(args[0],
-						Integer.parseInt(args[1]));
+						Integer.parseInt(args[1]), boxSize,
+						new Random().nextLong()).iterator();
 			}
 
-			SudokuBoard sudokuBoard;
-			// We use a set of sets in case we want to implement searching for
-			// every possible solution, which is a bit longer.
-			List<ExactCoverAction> results;
+			SudokuResultWriter writer = null;
+			SudokuResultListener printer;
+			if (args != null && args.length > 3) {
+				writer = new SudokuResultWriter(System.out,
+						SudokuResultWriter.Format.valueOf(args[3]
+								.toUpperCase()));
+				printer = writer;
+			} else {
+				printer = new SudokuResultListener() {
+					@Override
+					public void boardSolved(SudokuResult result) {
+						printResult(result);
+					}
+				};
+			}
 
-			for (int[] board : toSolve) {
+			if (args != null && args.length > 2) {
+				SudokuBatchSolver batchSolver = new SudokuBatchSolver(
+						Integer.parseInt(args[2]));
+				try {
+					batchSolver.solve(toSolve, printer);
+				} finally {
+					batchSolver.shutdown();
+				}
+			} else {
 				DancingLinksSearch dancingLinksSearch = new DancingLinksSearch();
-				results = new LinkedList<ExactCoverAction>();
-
-				sudokuBoard = new SudokuBoard(board);
-				results = dancingLinksSearch.solve(sudokuBoard);
-
-				System.out.println("Metrics: "
-						+ dancingLinksSearch.getMetrics());
-
-				if (results.isEmpty())
-					System.out.println("No solution found.\n");
-				else {
-					System.out.print("Actions: ");
-					String actionOutputStr = "";
-					for (ExactCoverAction action : results) {
-						sudokuBoard.changeState(action);
-						actionOutputStr += (action + ", ");
-					}
-					System.out.println(actionOutputStr.substring(0,
-							actionOutputStr.length() - 2));
-					System.out.print(sudokuBoard);
+				long index = 0;
+				while (toSolve.hasNext()) {
+					printer.boardSolved(SudokuBatchSolver.solve(
+							dancingLinksSearch, index++, toSolve.next()));
 				}
 			}
+			if (reader != null) {
+				reader.close();
+			}
+			if (writer != null) {
+				writer.close();
+			}
 		} catch (Exception e) {
 			System.out.println("Use the following argument format: "
 					+ ARG_FORMAT);
 			e.printStackTrace();
 		}
 	}
+
+	/**
+	 * Reads the value of the box size option.
+	 * 
+	 * @param value
+	 *            The text following the option.
+	 * @return The box size, or <code>-1</code> if it is not a number from
+	 *         <code>SudokuBoard.MIN_BOX_SIZE</code> to
+	 *         <code>SudokuBoard.MAX_BOX_SIZE</code>.
+	 */
+	private static int parseBoxSize(String value) {
+		try {
+			int boxSize = Integer.parseInt(value);
+			if (boxSize >= SudokuBoard.MIN_BOX_SIZE
+					&& boxSize <= SudokuBoard.MAX_BOX_SIZE) {
+				return boxSize;
+			}
+		} catch (NumberFormatException e) {
+		}
+		return -1;
+	}
+
+	/**
+	 * Prints the propagation, the metrics, the actions and the solved board of
+	 * a result.
+	 * 
+	 * @param result
+	 *            The {@link ca.lavoiedn.Sudoku.SudokuResult} to print.
+	 */
+	private static void printResult(SudokuResult result) {
+		System.out.println("Propagation: " + result.getPropagatedCells()
+				+ " cells in " + result.getPropagationTime() + "ns");
+		System.out.println("Metrics: "
+				+ (result.isSearched() ? result.getMetrics() : "no search"));
+
+		if (!result.isSolved())
+			System.out.println("No solution found.\n");
+		else {
+			StringBuilder actionOutput = new StringBuilder("Actions:");
+			for (ExactCoverAction action : result.getActions()) {
+				actionOutput.append(' ').append(action).append(',');
+			}
+			if (!result.isSearched()) {
+				actionOutput.append(" none (solved by propagation)");
+			} else {
+				actionOutput.setLength(actionOutput.length() - 1);
+			}
+			actionOutput.append('\n').append(result.getSolution());
+			System.out.print(actionOutput);
+		}
+	}
 }
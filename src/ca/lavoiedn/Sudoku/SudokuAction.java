@@ -1,11 +1,15 @@
 package ca.lavoiedn.Sudoku;
 
+import ca.lavoiedn.DLX.DancingLinkList;
 import ca.lavoiedn.DLX.ExactCoverAction;
-import ca.lavoiedn.ToroidalList.ToroidalNode;
 
 /**
  * A simple class to illustrate a "move" in a game of Sudoku.
  * 
+ * An action knows the box size of its board, <code>3</code> unless told
+ * otherwise, and its constraint keys spell out their numbers in full, so
+ * digits and coordinates above 9 are kept apart.
+ * 
  * @author lavoiedn
  * 
  */
@@ -13,18 +17,30 @@ public class SudokuAction extends ExactCoverAction {
 
 	private int position;
 	private int value;
+	// Not initialized here: the superclass constructors may set it first.
+	private int boxSize;
 
 	public SudokuAction(int index, int value) {
+		this(index, value, SudokuBoard.STANDARD_BOX_SIZE);
+	}
+
+	public SudokuAction(int index, int value, int boxSize) {
 		position = index;
 		this.value = value;
+		this.boxSize = boxSize;
 	}
 
 	public SudokuAction(String[] keys) {
 		super(keys);
 	}
 
-	public SudokuAction(ToroidalNode node) {
-		super(node);
+	public SudokuAction(String[] keys, int boxSize) {
+		this.boxSize = boxSize;
+		setFromConstraintKeys(keys);
+	}
+
+	public SudokuAction(DancingLinkList matrix, int node) {
+		super(matrix, node);
 	}
 
 	/**
@@ -45,6 +61,18 @@ public class SudokuAction extends ExactCoverAction {
 		return value;
 	}
 
+	/**
+	 * Getter method for the box size of the action's board.
+	 * 
+	 * @return Returns the box size, <code>3</code> for the standard board.
+	 */
+	public int getBoxSize() {
+		if (boxSize == 0) {
+			boxSize = SudokuBoard.STANDARD_BOX_SIZE;
+		}
+		return boxSize;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -60,7 +88,7 @@ public class SudokuAction extends ExactCoverAction {
 	 * @see aima.search.Sudoku.SudokuBoard#getRow()
 	 */
 	public int getRow() {
-		return SudokuBoard.getRow(position);
+		return SudokuBoard.getRow(position, getBoxSize());
 	}
 
 	/*
@@ -69,7 +97,7 @@ public class SudokuAction extends ExactCoverAction {
 	 * @see aima.search.Sudoku.SudokuBoard#getCol()
 	 */
 	public int getCol() {
-		return SudokuBoard.getCol(position);
+		return SudokuBoard.getCol(position, getBoxSize());
 	}
 
 	/*
@@ -78,7 +106,7 @@ public class SudokuAction extends ExactCoverAction {
 	 * @see aima.search.Sudoku.SudokuBoard#getBox()
 	 */
 	public int getBox() {
-		return SudokuBoard.getBox(getRow(), getCol());
+		return SudokuBoard.getBox(getRow(), getCol(), getBoxSize());
 	}
 
 	/*
@@ -99,6 +127,8 @@ public class SudokuAction extends ExactCoverAction {
 			return false;
 		if (value != other.value)
 			return false;
+		if (getBoxSize() != other.getBoxSize())
+			return false;
 		return true;
 	}
 
@@ -110,9 +140,10 @@ public class SudokuAction extends ExactCoverAction {
 	@Override
 	public boolean isValid() {
 		boolean noOp = false;
-		if (position < 0 || position > 80)
+		int side = getBoxSize() * getBoxSize();
+		if (position < 0 || position >= side * side)
 			noOp = true;
-		if (value < 1 || value > 9)
+		if (value < 1 || value > side)
 			noOp = true;
 		return noOp;
 	}
@@ -141,53 +172,76 @@ public class SudokuAction extends ExactCoverAction {
 	 */
 	@Override
 	protected boolean setFromConstraintKeys(String[] keys) {
-		int row = -1;
-		int col = -1;
-		value = -1;
-		
+		int[] found = { -1, -1, -1 };
 		for (String key : keys) {
-			for (int i = 0; i < key.length(); i += 2) {
-				if (key.charAt(i) == 'R') {
-					row = (Character.getNumericValue(key.charAt(i + 1))) - 1;
-				} else if (key.charAt(i) == 'C') {
-					col = (Character.getNumericValue(key.charAt(i + 1))) - 1;
-				} else if (key.charAt(i) == '#') {
-					value = Character.getNumericValue(key.charAt(i + 1));
-				}
-			}
+			parseKey(key, found);
 		}
-		position = SudokuBoard.getIndex(col, row);
-		return row != -1 && col != -1 && value != -1;
+		return setFromKeys(found);
 	}
 
 	/*
 	 * (non-Javadoc)
 	 * 
 	 * @see
-	 * ca.lavoiedn.DLX.ExactCoverAction#setFromToroidalNode(ca.lavoiedn.DLX.
-	 * ToroidalNode)
+	 * ca.lavoiedn.DLX.ExactCoverAction#setFromNode(ca.lavoiedn.DLX.
+	 * DancingLinkList, int)
 	 */
 	@Override
-	public boolean setFromToroidalNode(ToroidalNode node) {
-		int row = -1;
-		int col = -1;
-		value = -1;
-		ToroidalNode start = node;
-		node = node.getRight();
+	public boolean setFromNode(DancingLinkList matrix, int node) {
+		// A board of box size N has 4 * N^4 columns.
+		int side = (int) Math.round(Math.sqrt(matrix.getColumnCount() / 4));
+		boxSize = (int) Math.round(Math.sqrt(side));
+		int[] found = { -1, -1, -1 };
+		int start = node;
+		node = matrix.getRight(node);
 		while (node != start) {
-			String key = node.getHeader().getName();
-			for (int i = 0; i < key.length(); i += 2) {
-				if (key.charAt(i) == 'R') {
-					row = (Character.getNumericValue(key.charAt(i + 1))) - 1;
-				} else if (key.charAt(i) == 'C') {
-					col = (Character.getNumericValue(key.charAt(i + 1))) - 1;
-				} else if (key.charAt(i) == '#') {
-					value = Character.getNumericValue(key.charAt(i + 1));
-				}
+			parseKey(matrix.getName(matrix.getHeader(node)), found);
+			node = matrix.getRight(node);
+		}
+		return setFromKeys(found);
+	}
+
+	/**
+	 * Reads the row, column and digit spelled out by a constraint key, such
+	 * as <code>R12C3</code> or <code>B4#16</code>.
+	 * 
+	 * @param key
+	 *            The constraint key.
+	 * @param found
+	 *            The row and column, from <code>0</code>, and the digit, in
+	 *            this order, overwritten with those found in the key.
+	 */
+	private static void parseKey(String key, int[] found) {
+		int i = 0;
+		while (i < key.length()) {
+			char type = key.charAt(i++);
+			int number = 0;
+			while (i < key.length() && Character.isDigit(key.charAt(i))) {
+				number = number * 10 + key.charAt(i++) - '0';
+			}
+			if (type == 'R') {
+				found[0] = number - 1;
+			} else if (type == 'C') {
+				found[1] = number - 1;
+			} else if (type == '#') {
+				found[2] = number;
 			}
-			node = node.getRight();
 		}
-		position = SudokuBoard.getIndex(col, row);
-		return row != -1 && col != -1 && value != -1;
+	}
+
+	/**
+	 * Sets the position and digit of this action from what its constraint
+	 * keys spelled out.
+	 * 
+	 * @param found
+	 *            The row, the column and the digit, <code>-1</code> if
+	 *            missing.
+	 * @return <code>true</code> if all three were found, else
+	 *         <code>false</code>.
+	 */
+	private boolean setFromKeys(int[] found) {
+		value = found[2];
+		position = SudokuBoard.getIndex(found[1], found[0], getBoxSize());
+		return found[0] != -1 && found[1] != -1 && value != -1;
 	}
 }
@@ -0,0 +1,282 @@
+package ca.lavoiedn.Sudoku;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import ca.lavoiedn.DLX.DancingLinksSearch;
+import ca.lavoiedn.DLX.ExactCoverAction;
+import ca.lavoiedn.DLX.SearchMetrics;
+
+/**
+ * Solves a batch of sudoku boards on a pool of worker threads.
+ * 
+ * Every worker keeps its own {@link ca.lavoiedn.DLX.DancingLinksSearch} from
+ * one board to the next, and takes the boards from the batch one at a time.
+ * The results are handed back in the order of the boards, through a reorder
+ * buffer of bounded size: a worker may only take a new board while the buffer
+ * has room for its result, so a slow board holds back the workers instead of
+ * letting the results pile up in memory.
+ * 
+ * @author lavoiedn
+ * 
+ */
+
+public class SudokuBatchSolver {
+
+	private static final int BUFFERED_BOARDS_PER_WORKER = 64;
+
+	private final ExecutorService pool;
+	private final int workers;
+	private final int bufferSize;
+	private final ThreadLocal<DancingLinksSearch> searches = new ThreadLocal<DancingLinksSearch>() {
+		@Override
+		protected DancingLinksSearch initialValue() {
+			return new DancingLinksSearch();
+		}
+	};
+
+	/**
+	 * Constructor for a solver using one worker per available processor.
+	 */
+	public SudokuBatchSolver() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor for a solver using the given number of workers.
+	 * 
+	 * @param workers
+	 *            The number of worker threads.
+	 */
+	public SudokuBatchSolver(int workers) {
+		this(workers, workers * BUFFERED_BOARDS_PER_WORKER);
+	}
+
+	/**
+	 * Constructor for a solver using the given number of workers and reorder
+	 * buffer size.
+	 * 
+	 * @param workers
+	 *            The number of worker threads.
+	 * @param bufferSize
+	 *            The number of results that may wait to be handed back.
+	 */
+	public SudokuBatchSolver(int workers, int bufferSize) {
+		if (workers <= 0 || bufferSize <= 0) {
+			throw new IllegalArgumentException(
+					"The number of workers and the buffer size must be positive.");
+		}
+		this.workers = workers;
+		this.bufferSize = bufferSize;
+		pool = Executors.newFixedThreadPool(workers);
+	}
+
+	/**
+	 * Solves every board of the given list.
+	 * 
+	 * @param boards
+	 *            The sudoku layouts to solve.
+	 * @param listener
+	 *            The {@link ca.lavoiedn.Sudoku.SudokuResultListener} to call
+	 *            with each result, in the order of the boards.
+	 * @return The number of boards solved.
+	 * @throws InterruptedException
+	 *             If the calling thread is interrupted while waiting for a
+	 *             result.
+	 */
+	public long solve(List<int[]> boards, SudokuResultListener listener)
+			throws InterruptedException {
+		return solve(boards.iterator(), listener);
+	}
+
+	/**
+	 * Solves every board given by an iterator. The iterator is only used by
+	 * one thread at a time, so it may read the boards lazily.
+	 * 
+	 * @param boards
+	 *            The sudoku layouts to solve.
+	 * @param listener
+	 *            The {@link ca.lavoiedn.Sudoku.SudokuResultListener} to call
+	 *            with each result, in the order of the boards. It is always
+	 *            called from the calling thread.
+	 * @return The number of boards solved.
+	 * @throws InterruptedException
+	 *             If the calling thread is interrupted while waiting for a
+	 *             result.
+	 */
+	public long solve(Iterator<int[]> boards, SudokuResultListener listener)
+			throws InterruptedException {
+		Batch batch = new Batch(boards);
+		for (int i = 0; i < workers; i++) {
+			pool.execute(batch);
+		}
+		try {
+			SudokuResult result;
+			while ((result = batch.next()) != null) {
+				listener.boardSolved(result);
+			}
+		} finally {
+			batch.abort();
+		}
+		return batch.written;
+	}
+
+	/**
+	 * Stops the worker threads of this solver once their current batch is
+	 * done.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Solves a single board with the search of the current worker.
+	 * 
+	 * @param index
+	 *            The position of the board in the batch.
+	 * @param board
+	 *            The sudoku layout.
+	 * @return The outcome of the search.
+	 */
+	private SudokuResult solve(long index, int[] board) {
+		return solve(searches.get(), index, board);
+	}
+
+	/**
+	 * Solves a single board, first by propagation, then with the given search
+	 * if some cells are left. The cells filled by propagation become part of
+	 * the initial state of the search.
+	 * 
+	 * @param search
+	 *            The {@link ca.lavoiedn.DLX.DancingLinksSearch} to use.
+	 * @param index
+	 *            The position of the board in the batch.
+	 * @param board
+	 *            The sudoku layout.
+	 * @return The outcome of the search, with the work of the propagation,
+	 *         and with empty metrics if the search was not needed.
+	 */
+	static SudokuResult solve(DancingLinksSearch search, long index,
+			int[] board) {
+		SudokuBoard sudokuBoard = new SudokuBoard(board);
+		long time = System.nanoTime();
+		int empty = sudokuBoard.getEmptyCellCount();
+		boolean feasible = sudokuBoard.propagate();
+		int propagated = empty - sudokuBoard.getEmptyCellCount();
+		time = System.nanoTime() - time;
+		if (!feasible || propagated == empty) {
+			return new SudokuResult(index, board, sudokuBoard,
+					Collections.<ExactCoverAction> emptyList(),
+					new SearchMetrics(), false, propagated, time);
+		}
+		List<ExactCoverAction> actions = search.solve(sudokuBoard);
+		for (ExactCoverAction action : actions) {
+			sudokuBoard.changeState(action);
+		}
+		// The search reuses its metrics for the next board.
+		return new SudokuResult(index, board, sudokuBoard, actions,
+				new SearchMetrics(search.getMetrics()), true, propagated, time);
+	}
+
+	/**
+	 * The state of one call to <code>solve</code>, run by every worker of the
+	 * pool.
+	 */
+	private class Batch implements Runnable {
+
+		private final Iterator<int[]> boards;
+		private final SudokuResult[] buffer = new SudokuResult[bufferSize];
+		private final Semaphore free = new Semaphore(bufferSize);
+		private long taken;
+		private long written;
+		private int running = workers;
+		private RuntimeException failure;
+		private volatile boolean aborted;
+
+		Batch(Iterator<int[]> boards) {
+			this.boards = boards;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			long index = -1;
+			try {
+				while (true) {
+					free.acquire();
+					int[] board;
+					synchronized (boards) {
+						if (aborted || !boards.hasNext()) {
+							free.release();
+							break;
+						}
+						board = boards.next();
+						index = taken++;
+					}
+					SudokuResult result = solve(index, board);
+					synchronized (this) {
+						buffer[(int) (index % bufferSize)] = result;
+						notifyAll();
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (RuntimeException e) {
+				synchronized (this) {
+					if (failure == null) {
+						failure = new IllegalStateException(
+								"Could not solve board " + index + ".", e);
+					}
+				}
+				aborted = true;
+			} finally {
+				synchronized (this) {
+					running--;
+					notifyAll();
+				}
+			}
+		}
+
+		/**
+		 * Waits for the result of the next board.
+		 * 
+		 * @return The next result, or <code>null</code> once every board was
+		 *         handed back.
+		 * @throws InterruptedException
+		 *             If the calling thread is interrupted while waiting.
+		 */
+		synchronized SudokuResult next() throws InterruptedException {
+			int slot = (int) (written % bufferSize);
+			while (buffer[slot] == null && failure == null && running > 0) {
+				wait();
+			}
+			if (failure != null) {
+				throw failure;
+			}
+			SudokuResult result = buffer[slot];
+			if (result != null) {
+				buffer[slot] = null;
+				written++;
+				free.release();
+			}
+			return result;
+		}
+
+		/**
+		 * Stops the workers from taking new boards, and lets the ones waiting
+		 * for room in the buffer go.
+		 */
+		void abort() {
+			aborted = true;
+			free.release(workers);
+		}
+	}
+}
@@ -1,17 +1,24 @@
 package ca.lavoiedn.Sudoku;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 
 import ca.lavoiedn.DLX.DancingLinkList;
 import ca.lavoiedn.DLX.ExactCoverAction;
 import ca.lavoiedn.DLX.ExactCoverProblem;
-import ca.lavoiedn.ToroidalList.ToroidalNode;
 
 /**
- * A simple Sudoku board, described by an array of 81 numbers.
+ * A simple Sudoku board, described by an array of 81 numbers, or more
+ * generally of <code>N^4</code> numbers for a board of <code>N^2</code> by
+ * <code>N^2</code> cells made of boxes of <code>N</code> by <code>N</code>
+ * cells, where <code>N</code> is the box size, from <code>2</code> to
+ * <code>8</code>. The standard board has a box size of <code>3</code>.
+ * 
+ * The digits placed in each row, column and box are kept as bitmasks, with
+ * the bit <code>digit - 1</code> set for each digit, so the candidates of a
+ * cell are known without scanning the board. The board can fill in its naked
+ * and hidden singles with <code>propagate</code> before it is searched.
  * 
  * @author lavoiedn
  * 
@@ -19,17 +26,122 @@ import ca.lavoiedn.ToroidalList.ToroidalNode;
 
 public class SudokuBoard extends ExactCoverProblem {
 
-	private int[] boardState = new int[81];
+	/**
+	 * The box size of the standard board.
+	 */
+	public static final int STANDARD_BOX_SIZE = 3;
 
 	/**
-	 * <code>SudokuBoard</code> constructor.
+	 * The smallest box size, that of a 4 by 4 board.
+	 */
+	public static final int MIN_BOX_SIZE = 2;
+
+	/**
+	 * The largest box size, for which the digits of a unit still fit in the
+	 * bits of a <code>long</code>.
+	 */
+	public static final int MAX_BOX_SIZE = 8;
+
+	/**
+	 * The layout of the boards of each box size, built once per size. The
+	 * standard one is built with the class.
+	 */
+	private static final Geometry[] GEOMETRIES = new Geometry[MAX_BOX_SIZE + 1];
+
+	static {
+		GEOMETRIES[STANDARD_BOX_SIZE] = new Geometry(STANDARD_BOX_SIZE);
+	}
+
+	private final Geometry geometry;
+	private final int[] boardState;
+	private final long[] rowDigits;
+	private final long[] colDigits;
+	private final long[] boxDigits;
+	private boolean consistent = true;
+
+	/**
+	 * <code>SudokuBoard</code> constructor. The box size is found from the
+	 * length of the layout; a layout of any other length gives an empty
+	 * standard board.
 	 * 
 	 * @param board
-	 *            The sudoku layout, given by an array of 81 integer.
+	 *            The sudoku layout, given by an array of 81 integer, or of
+	 *            <code>N^4</code> integer for a box size of <code>N</code>.
 	 */
 	public SudokuBoard(int[] board) {
-		if (board.length == 81) {
-			System.arraycopy(board, 0, boardState, 0, 81);
+		this(getBoxSize(board.length), board);
+	}
+
+	/**
+	 * <code>SudokuBoard</code> constructor for a board of the given box size.
+	 * 
+	 * @param boxSize
+	 *            The box size, from <code>2</code> to <code>8</code>.
+	 * @param board
+	 *            The sudoku layout, given by an array of <code>N^4</code>
+	 *            integer from <code>0</code> to <code>N^2</code>, or an empty
+	 *            board if it has another length.
+	 */
+	public SudokuBoard(int boxSize, int[] board) {
+		geometry = getGeometry(boxSize);
+		boardState = new int[geometry.cells];
+		rowDigits = new long[geometry.side];
+		colDigits = new long[geometry.side];
+		boxDigits = new long[geometry.side];
+		if (board.length == geometry.cells) {
+			for (int index = 0; index < geometry.cells; index++) {
+				int digit = board[index];
+				if (digit == 0) {
+					continue;
+				}
+				if (digit < 0 || digit > geometry.side
+						|| (getCandidates(index) & 1L << digit - 1) == 0) {
+					// Two givens share a unit; keep them, but never propagate.
+					consistent = false;
+				}
+				if (digit > 0 && digit <= geometry.side) {
+					place(index, digit);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the box size of a board from its number of cells.
+	 * 
+	 * @param cells
+	 *            The number of cells of the board.
+	 * @return The box size of the board, or the standard box size if no box
+	 *         size gives this number of cells.
+	 */
+	public static int getBoxSize(int cells) {
+		for (int boxSize = MIN_BOX_SIZE; boxSize <= MAX_BOX_SIZE; boxSize++) {
+			int side = boxSize * boxSize;
+			if (side * side == cells) {
+				return boxSize;
+			}
+		}
+		return STANDARD_BOX_SIZE;
+	}
+
+	/**
+	 * Returns the layout of the boards of the given box size, building it the
+	 * first time.
+	 * 
+	 * @param boxSize
+	 *            The box size, from <code>2</code> to <code>8</code>.
+	 * @return The {@link Geometry} of the boards of this size.
+	 */
+	private static Geometry getGeometry(int boxSize) {
+		if (boxSize < MIN_BOX_SIZE || boxSize > MAX_BOX_SIZE) {
+			throw new IllegalArgumentException("The box size must be between "
+					+ MIN_BOX_SIZE + " and " + MAX_BOX_SIZE + ".");
+		}
+		synchronized (GEOMETRIES) {
+			if (GEOMETRIES[boxSize] == null) {
+				GEOMETRIES[boxSize] = new Geometry(boxSize);
+			}
+			return GEOMETRIES[boxSize];
 		}
 	}
 
@@ -62,65 +174,130 @@ public class SudokuBoard extends ExactCoverProblem {
 	 * 
 	 * @param index
 	 *            The index where the digit will be placed. Must have a value
-	 *            between 0 and 80.
+	 *            between 0 and 80, on the standard board.
 	 * @param digit
 	 *            The digit to place at the given index. Must have a value
-	 *            between 1 and 9.
+	 *            between 1 and 9, on the standard board.
 	 * @return Returns <code>true</code> if the action was successful, else
 	 *         <code>false</code>
 	 */
 	public boolean play(int index, int digit) {
-		if (index >= 0 && index < boardState.length && 0 < digit && digit < 10) {
-			if (boardState[index] == 0) {
-				if (!inRow(getRow(index), digit)
-						&& !inCol(getCol(index), digit)
-						&& !inBox(getBox(index), digit)) {
-					boardState[index] = digit;
-					return true;
-				}
+		if (index >= 0 && index < boardState.length && 0 < digit
+				&& digit <= geometry.side) {
+			if ((getCandidates(index) & 1L << digit - 1) != 0) {
+				place(index, digit);
+				return true;
 			}
 		}
 		return false;
 	}
 
 	/**
-	 * Finds the moves that are valid on this board and returns them.
+	 * Places a digit and marks it in the masks of its row, column and box.
 	 * 
-	 * @return Returns the list of valid moves.
+	 * @param index
+	 *            The index of an empty cell.
+	 * @param digit
+	 *            The digit to place, between 1 and <code>N^2</code>.
 	 */
-	public ArrayList<SudokuAction> validMoves() {
-		ArrayList<SudokuAction> validMoves = new ArrayList<SudokuAction>();
-		HashSet<Integer> invalid = new HashSet<Integer>();
-		int mPos = 0;
-		for (int value : boardState) {
-			if (value == 0) {
-				for (int i = mPos - mPos % 9; i < (mPos - mPos % 9) + 9; i++) {
-					if (boardState[i] != 0) {
-						invalid.add(boardState[i]);
+	private void place(int index, int digit) {
+		long bit = 1L << digit - 1;
+		boardState[index] = digit;
+		rowDigits[geometry.rows[index]] |= bit;
+		colDigits[geometry.cols[index]] |= bit;
+		boxDigits[geometry.boxes[index]] |= bit;
+	}
+
+	/**
+	 * Returns the digits that can be placed at the given index, as a bitmask
+	 * with the bit <code>digit - 1</code> set for each digit.
+	 * 
+	 * @param index
+	 *            The index of the cell.
+	 * @return The candidates of the cell, or <code>0</code> if it is filled.
+	 */
+	public long getCandidates(int index) {
+		if (boardState[index] != 0) {
+			return 0;
+		}
+		return geometry.allDigits
+				& ~(rowDigits[geometry.rows[index]]
+						| colDigits[geometry.cols[index]] | boxDigits[geometry.boxes[index]]);
+	}
+
+	/**
+	 * Fills in the naked singles, cells with a single candidate, and the
+	 * hidden singles, digits with a single place in a row, column or box,
+	 * until none is left. Most puzzles are solved this way, and the others
+	 * reach the search with fewer empty cells.
+	 * 
+	 * @return <code>false</code> if the board was found to have no solution,
+	 *         else <code>true</code>.
+	 */
+	public boolean propagate() {
+		if (!consistent) {
+			return false;
+		}
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int index = 0; index < boardState.length; index++) {
+				if (boardState[index] == 0) {
+					long candidates = getCandidates(index);
+					if (candidates == 0) {
+						return false;
+					} else if ((candidates & candidates - 1) == 0) {
+						place(index, Long.numberOfTrailingZeros(candidates) + 1);
+						changed = true;
 					}
 				}
-				for (int i = mPos % 9; i < boardState.length; i += 9) {
-					if (boardState[i] != 0) {
-						invalid.add(boardState[i]);
+			}
+			for (int[] unit : geometry.units) {
+				long placed = 0;
+				long once = 0;
+				long twice = 0;
+				for (int index : unit) {
+					if (boardState[index] != 0) {
+						placed |= 1L << boardState[index] - 1;
+					} else {
+						long candidates = getCandidates(index);
+						twice |= once & candidates;
+						once |= candidates;
 					}
 				}
-				int topLeft = mPos - ((mPos % 27) - (mPos % 9));
-				topLeft -= topLeft % 3;
-				for (int x = topLeft; x <= topLeft + 18; x += 9) {
-					for (int i = x; i < x + 3; i++) {
-						if (boardState[i] != 0) {
-							invalid.add(boardState[i]);
-						}
-					}
+				if ((placed | once) != geometry.allDigits) {
+					return false;
 				}
-				for (int i = 1; i < 10; i++) {
-					if (!invalid.contains(i)) {
-						validMoves.add(new SudokuAction(mPos, i));
+				long singles = once & ~twice;
+				while (singles != 0) {
+					long bit = singles & -singles;
+					singles &= singles - 1;
+					for (int index : unit) {
+						if ((getCandidates(index) & bit) != 0) {
+							place(index, Long.numberOfTrailingZeros(bit) + 1);
+							changed = true;
+							break;
+						}
 					}
 				}
 			}
-			invalid = new HashSet<Integer>();
-			mPos++;
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the moves that are valid on this board and returns them.
+	 * 
+	 * @return Returns the list of valid moves.
+	 */
+	public ArrayList<SudokuAction> validMoves() {
+		ArrayList<SudokuAction> validMoves = new ArrayList<SudokuAction>();
+		for (int index = 0; index < boardState.length; index++) {
+			for (long candidates = getCandidates(index); candidates != 0; candidates &= candidates - 1) {
+				validMoves.add(new SudokuAction(index, Long
+						.numberOfTrailingZeros(candidates) + 1,
+						geometry.boxSize));
+			}
 		}
 		return validMoves;
 	}
@@ -129,7 +306,7 @@ public class SudokuBoard extends ExactCoverProblem {
 	 * Finds the digit at the given index and returns it.
 	 * 
 	 * @param index
-	 *            An <code>int</code> between 0 and 80.
+	 *            An <code>int</code> between 0 and 80, on the standard board.
 	 * @return Returns the digit at the given index.
 	 */
 	public int getValue(int index) {
@@ -146,7 +323,26 @@ public class SudokuBoard extends ExactCoverProblem {
 	 * @return Returns the digit at the given coordinates.
 	 */
 	public int getValue(int x, int y) {
-		return boardState[(x * 9) + y];
+		return boardState[(x * geometry.side) + y];
+	}
+
+	/**
+	 * Returns the box size of this board.
+	 * 
+	 * @return The box size, <code>3</code> for the standard board.
+	 */
+	public int getBoxSize() {
+		return geometry.boxSize;
+	}
+
+	/**
+	 * Returns the number of cells on a side of this board, which is also the
+	 * number of digits.
+	 * 
+	 * @return The side of the board, <code>9</code> for the standard board.
+	 */
+	public int getSide() {
+		return geometry.side;
 	}
 
 	/**
@@ -160,84 +356,91 @@ public class SudokuBoard extends ExactCoverProblem {
 	 *         else <code>false</code>.
 	 */
 	public boolean inRow(int row, int digit) {
-		boolean isIn = false;
-		if (row >= 0 && row < 9) {
-			for (int i = row * 9; i < row + 9; i++) {
-				isIn = boardState[i] == digit ? true : false;
-			}
-		}
-		return isIn;
+		return row >= 0 && row < geometry.side && 0 < digit
+				&& digit <= geometry.side && (rowDigits[row] & 1L << digit - 1) != 0;
 	}
 
 	/**
 	 * Determines if the given digit is in the specified column.
 	 * 
 	 * @param col
-	 *            The column to check in. (0 to 8)
+	 *            The column to check in. (0 to 8, on the standard board)
 	 * @param digit
 	 *            The digit to check for.
 	 * @return Returns <code>true</code> if <code>v</code> is in <code>x</code>,
 	 *         else <code>false</code>.
 	 */
 	public boolean inCol(int col, int digit) {
-		boolean isIn = false;
-		if (col >= 0 && col < 9) {
-			for (int i = col; i < 81; i += 9) {
-				isIn = boardState[i] == digit ? true : false;
-			}
-		}
-		return isIn;
+		return col >= 0 && col < geometry.side && 0 < digit
+				&& digit <= geometry.side && (colDigits[col] & 1L << digit - 1) != 0;
 	}
 
 	/**
 	 * Determines if the given digit is in the specified box.
 	 * 
 	 * @param box
-	 *            The box to check in. (0 to 8)
+	 *            The box to check in. (0 to 8, on the standard board)
 	 * @param digit
 	 *            The digit to check for.
 	 * @return Returns <code>true</code> if <code>v</code> is in <code>x</code>,
 	 *         else <code>false</code>.
 	 */
 	public boolean inBox(int box, int digit) {
-		boolean isIn = false;
-		if (box >= 0 && box < 9) {
-			int topLeft = 27 * ((int) Math.floor(box / 3)) + (box % 3) * 3;
-			for (int j = topLeft; j <= topLeft + 18; j += 9) {
-				for (int i = j; i < j + 3; i++) {
-					if (boardState[i] == digit) {
-						isIn = true;
-					}
-				}
-			}
-		}
-		return isIn;
+		return box >= 0 && box < geometry.side && 0 < digit
+				&& digit <= geometry.side && (boxDigits[box] & 1L << digit - 1) != 0;
 	}
 
 	/**
-	 * Determines which row the given index is in.
+	 * Determines which row the given index is in, on the standard board.
 	 * 
 	 * @param index
 	 *            The index to evaluate.
 	 * @return Returns the row where the given index is.
 	 */
 	public static int getRow(int index) {
-		return (int) Math.floor(index / 9);
+		return getRow(index, STANDARD_BOX_SIZE);
 	}
 
 	/**
-	 * Determines which column the given index is in.
+	 * Determines which row the given index is in.
+	 * 
+	 * @param index
+	 *            The index to evaluate.
+	 * @param boxSize
+	 *            The box size of the board.
+	 * @return Returns the row where the given index is.
+	 */
+	public static int getRow(int index, int boxSize) {
+		return index / (boxSize * boxSize);
+	}
+
+	/**
+	 * Determines which column the given index is in, on the standard board.
 	 * 
 	 * @param index
 	 *            The index to evaluate.
 	 * @return Returns the column where the given index is.
 	 */
 	public static int getCol(int index) {
-		return index % 9;
+		return getCol(index, STANDARD_BOX_SIZE);
 	}
 
 	/**
-	 * Determines which box the given coordinates are in.
+	 * Determines which column the given index is in.
+	 * 
+	 * @param index
+	 *            The index to evaluate.
+	 * @param boxSize
+	 *            The box size of the board.
+	 * @return Returns the column where the given index is.
+	 */
+	public static int getCol(int index, int boxSize) {
+		return index % (boxSize * boxSize);
+	}
+
+	/**
+	 * Determines which box the given coordinates are in, on the standard
+	 * board.
 	 * 
 	 * @param x
 	 *            The abscissa.
@@ -246,12 +449,28 @@ public class SudokuBoard extends ExactCoverProblem {
 	 * @return The box which contains the given coordinates.
 	 */
 	public static int getBox(int x, int y) {
-		return x >= 0 && x < 9 && y >= 0 && y < 9 ? 3
-				* ((int) Math.floor(y / 3)) + ((int) Math.floor(x / 3)) : -1;
+		return getBox(x, y, STANDARD_BOX_SIZE);
 	}
 
 	/**
-	 * Determines which box the given index is in.
+	 * Determines which box the given coordinates are in.
+	 * 
+	 * @param x
+	 *            The abscissa.
+	 * @param y
+	 *            The ordinate.
+	 * @param boxSize
+	 *            The box size of the board.
+	 * @return The box which contains the given coordinates.
+	 */
+	public static int getBox(int x, int y, int boxSize) {
+		int side = boxSize * boxSize;
+		return x >= 0 && x < side && y >= 0 && y < side ? boxSize
+				* (y / boxSize) + x / boxSize : -1;
+	}
+
+	/**
+	 * Determines which box the given index is in, on the standard board.
 	 * 
 	 * @param index
 	 *            The position index to find the box for.
@@ -262,7 +481,8 @@ public class SudokuBoard extends ExactCoverProblem {
 	}
 
 	/**
-	 * Returns the index corresponding to the given coordinates.
+	 * Returns the index corresponding to the given coordinates, on the
+	 * standard board.
 	 * 
 	 * @param x
 	 *            The abscissa.
@@ -271,7 +491,23 @@ public class SudokuBoard extends ExactCoverProblem {
 	 * @return The index corresponding to the given coordinates.
 	 */
 	public static int getIndex(int x, int y) {
-		return x >= 0 && x < 9 && y >= 0 && y < 9 ? x + y * 9 : -1;
+		return getIndex(x, y, STANDARD_BOX_SIZE);
+	}
+
+	/**
+	 * Returns the index corresponding to the given coordinates.
+	 * 
+	 * @param x
+	 *            The abscissa.
+	 * @param y
+	 *            The ordinate.
+	 * @param boxSize
+	 *            The box size of the board.
+	 * @return The index corresponding to the given coordinates.
+	 */
+	public static int getIndex(int x, int y, int boxSize) {
+		int side = boxSize * boxSize;
+		return x >= 0 && x < side && y >= 0 && y < side ? x + y * side : -1;
 	}
 
 	/**
@@ -285,15 +521,32 @@ public class SudokuBoard extends ExactCoverProblem {
 		return copy;
 	}
 
+	/**
+	 * Returns the id of the row of the sparse matrix placing the given digit
+	 * at the given index, to assume or exclude it in
+	 * <code>DancingLinksSearch.resolve</code>. Reverts
+	 * <code>getSpecificAction</code>.
+	 * 
+	 * @param index
+	 *            The index of the cell.
+	 * @param digit
+	 *            The digit, from <code>1</code>.
+	 * @return The id of the row.
+	 */
+	public int getRowId(int index, int digit) {
+		return index * geometry.side + digit - 1;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see
-	 * ca.lavoiedn.DLX.ExactCoverProblem#getAction(ca.lavoiedn.DLX.ToroidalNode)
+	 * @see ca.lavoiedn.DLX.ExactCoverProblem#getSpecificAction(int)
 	 */
 	@Override
-	public SudokuAction getSpecificAction(ToroidalNode node) {
-		return new SudokuAction(node);
+	public SudokuAction getSpecificAction(int row) {
+		// The rows of the sparse matrix are ordered by position, then digit.
+		return new SudokuAction(row / geometry.side, row % geometry.side + 1,
+				geometry.boxSize);
 	}
 
 	/*
@@ -303,6 +556,10 @@ public class SudokuBoard extends ExactCoverProblem {
 	 */
 	@Override
 	public boolean isSolved() {
+		// A full board is only valid if its givens were.
+		if (!consistent) {
+			return false;
+		}
 		for (int digit : boardState) {
 			if (digit == 0) {
 				return false;
@@ -311,6 +568,21 @@ public class SudokuBoard extends ExactCoverProblem {
 		return true;
 	}
 
+	/**
+	 * Counts the cells of this board that are still empty.
+	 * 
+	 * @return The number of empty cells.
+	 */
+	public int getEmptyCellCount() {
+		int empty = 0;
+		for (int digit : boardState) {
+			if (digit == 0) {
+				empty++;
+			}
+		}
+		return empty;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -321,8 +593,11 @@ public class SudokuBoard extends ExactCoverProblem {
 		if (obj == null)
 			return false;
 		SudokuBoard other = (SudokuBoard) obj;
-		for (int index = 0; index < other.getBoard().length; index++) {
-			if (other.getBoard()[index] != this.boardState[index]) {
+		if (other.boardState.length != this.boardState.length) {
+			return false;
+		}
+		for (int index = 0; index < other.boardState.length; index++) {
+			if (other.boardState[index] != this.boardState[index]) {
 				return false;
 			}
 		}
@@ -332,115 +607,64 @@ public class SudokuBoard extends ExactCoverProblem {
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see ca.lavoiedn.DLX.ExactCoverProblem#asSparseMatrix()
+	 * @see ca.lavoiedn.DLX.ExactCoverProblem#getSparseMatrix()
 	 */
 	@Override
 	public DancingLinkList getSparseMatrix() {
-		DancingLinkList sparseMatrix = new DancingLinkList();
-		ArrayList<String> keys = new ArrayList<String>();
-		boolean[][] cover = asExactCover();
-		String key = "";
-		for (int y = 0; y < cover[0].length; y++) {
-			if (y < (int) ((cover[0].length + 1) / 4)) {
-				key = "R" + (((int) Math.floor(y / 9)) + 1);
-				key += "C" + (y % 9 + 1);
-			} else if (y < (int) ((cover[0].length + 1) / 2)) {
-				key = "R" + (((int) Math.floor((y - 81) / 9)) + 1);
-				key += "#" + (y % 9 + 1);
-			} else if (y < (int) ((cover[0].length + 1) * 0.75)) {
-				key = "C"
-						+ (((int) Math
-								.floor((y - (int) ((cover[0].length + 1) / 2)) / 9)) + 1);
-				key += "#" + (y % 9 + 1);
-			} else {
-				key = "B"
-						+ (((int) Math
-								.floor((y - (int) ((cover[0].length + 1) * 0.75)) / 9)) + 1);
-				key += "#" + (y % 9 + 1);
-			}
-			keys.add(key);
-			sparseMatrix.add(key);
-			key = "";
-		}
-		for (int x = 0; x < cover.length; x++) {
-			HashSet<String> buildKeys = new HashSet<String>();
-
-			for (int y = 0; y < cover[x].length; y++) {
-				if (cover[x][y]) {
-					buildKeys.add(keys.get(y));
-				}
-			}
-
-			sparseMatrix.buildRow(buildKeys);
-		}
-		return sparseMatrix;
+		return new DancingLinkList(geometry.sparseMatrix);
 	}
 
 	/**
-	 * Builds the constraint matrix to change the problem to its exact cover
-	 * form. (For the basic sudoku problem.)
+	 * Builds the sparse matrix of the sudoku problem, before any digit is
+	 * placed. The rows are added straight from their four columns, so no
+	 * dense constraint matrix is ever allocated: a board of box size
+	 * <code>N</code> has <code>N^6</code> rows of four nodes each.
+	 * 
+	 * The columns are ordered by kind, cell constraints first, then the digits
+	 * of each row, of each column and of each box. The rows are ordered by
+	 * position, then digit, which is what <code>getSpecificAction</code>
+	 * relies on.
 	 * 
-	 * @return Returns the constraint matrix of the exact cover problem.
+	 * @param boxSize
+	 *            The box size of the board.
+	 * @return The sparse matrix of an empty board.
 	 */
-	private static boolean[][] asExactCover() {
-		boolean[][] constraints = new boolean[729][324];
-		int cNum = 0;
-		for (int i = 0; i <= 8; i++) {
-			for (int j = 0; j <= 8; j++) {
-				for (int k = 0; k <= 8; k++) {
-					for (int x = 0; x < 9; x++) {
-						for (int y = 0; y < 9; y++) {
-							constraints[(i * 81 + j * 9 + k)][cNum * 81
-									+ (x * 9 + y)] = x == i && j == y ? true
-									: false;
-						}
-					}
-				}
-			}
+	private static DancingLinkList buildSparseMatrix(int boxSize) {
+		int side = boxSize * boxSize;
+		int cells = side * side;
+		DancingLinkList sparseMatrix = new DancingLinkList();
+		int[] headers = new int[4 * cells];
+		for (int y = 0; y < cells; y++) {
+			headers[y] = sparseMatrix.add("R" + (y / side + 1) + "C"
+					+ (y % side + 1));
 		}
-		cNum++;
-		for (int i = 0; i <= 8; i++) {
-			for (int j = 0; j <= 8; j++) {
-				for (int k = 0; k <= 8; k++) {
-					for (int x = 0; x < 9; x++) {
-						for (int y = 0; y < 9; y++) {
-							constraints[(i * 81 + j * 9 + k)][cNum * 81
-									+ (x * 9 + y)] = x == i && k == y ? true
-									: false;
-						}
-					}
-				}
-			}
+		for (int y = 0; y < cells; y++) {
+			headers[cells + y] = sparseMatrix.add("R" + (y / side + 1) + "#"
+					+ (y % side + 1));
 		}
-		cNum++;
-		for (int i = 0; i <= 8; i++) {
-			for (int j = 0; j <= 8; j++) {
-				for (int k = 0; k <= 8; k++) {
-					for (int x = 0; x < 9; x++) {
-						for (int y = 0; y < 9; y++) {
-							constraints[(i * 81 + j * 9 + k)][cNum * 81
-									+ (x * 9 + y)] = x == j && k == y ? true
-									: false;
-						}
-					}
-				}
-			}
+		for (int y = 0; y < cells; y++) {
+			headers[2 * cells + y] = sparseMatrix.add("C" + (y / side + 1)
+					+ "#" + (y % side + 1));
 		}
-		cNum++;
-		for (int i = 0; i <= 8; i++) {
-			for (int j = 0; j <= 8; j++) {
-				for (int k = 0; k <= 8; k++) {
-					for (int x = 0; x < 9; x++) {
-						for (int y = 0; y < 9; y++) {
-							constraints[(i * 81 + j * 9 + k)][cNum * 81
-									+ (x * 9 + y)] = getBox(i, j) == x
-									&& y == k ? true : false;
-						}
-					}
+		for (int y = 0; y < cells; y++) {
+			headers[3 * cells + y] = sparseMatrix.add("B" + (y / side + 1)
+					+ "#" + (y % side + 1));
+		}
+		int[] rowHeaders = new int[4];
+		for (int row = 0; row < side; row++) {
+			for (int col = 0; col < side; col++) {
+				// The boxes are numbered as in SudokuAction.getBox.
+				int box = getBox(row, col, boxSize);
+				for (int digit = 0; digit < side; digit++) {
+					rowHeaders[0] = headers[row * side + col];
+					rowHeaders[1] = headers[cells + row * side + digit];
+					rowHeaders[2] = headers[2 * cells + col * side + digit];
+					rowHeaders[3] = headers[3 * cells + box * side + digit];
+					sparseMatrix.buildRow(rowHeaders);
 				}
 			}
 		}
-		return constraints;
+		return sparseMatrix;
 	}
 
 	/*
@@ -449,20 +673,21 @@ public class SudokuBoard extends ExactCoverProblem {
 	 * @see java.lang.Object#toString()
 	 */
 	public String toString() {
-		String sudoku = "";
+		int side = geometry.side;
+		StringBuilder sudoku = new StringBuilder(3 * boardState.length + 1);
 		int index = 0;
 		for (int i : boardState) {
-			if (index % 9 == 8) {
-				sudoku += i;
-			} else if (index % 9 == 0) {
-				sudoku += "\n" + i + " ";
+			if (index % side == side - 1) {
+				sudoku.append(i);
+			} else if (index % side == 0) {
+				sudoku.append('\n').append(i).append(' ');
 			} else {
-				sudoku += i + " ";
+				sudoku.append(i).append(' ');
 			}
 			index++;
 		}
-		sudoku += "\n";
-		return sudoku;
+		sudoku.append('\n');
+		return sudoku.toString();
 	}
 
 	/*
@@ -476,7 +701,8 @@ public class SudokuBoard extends ExactCoverProblem {
 		List<SudokuAction> initialState = new LinkedList<SudokuAction>();
 		for (int digit : getBoard()) {
 			if (digit != 0) {
-				SudokuAction pre = new SudokuAction(mPos, digit);
+				SudokuAction pre = new SudokuAction(mPos, digit,
+						geometry.boxSize);
 				initialState.add(pre);
 			}
 			mPos++;
@@ -491,6 +717,47 @@ public class SudokuBoard extends ExactCoverProblem {
 	 */
 	@Override
 	public SudokuBoard clone() {
-		return new SudokuBoard(boardState);
+		return new SudokuBoard(geometry.boxSize, boardState);
+	}
+
+	/**
+	 * The layout shared by the boards of one box size: the row, column and
+	 * box of each cell, the cells of each row, column and box, and the sparse
+	 * matrix of an empty board.
+	 */
+	private static final class Geometry {
+
+		final int boxSize;
+		final int side;
+		final int cells;
+		final long allDigits;
+		final int[] rows;
+		final int[] cols;
+		final int[] boxes;
+		final int[][] units;
+		final DancingLinkList sparseMatrix;
+
+		Geometry(int boxSize) {
+			this.boxSize = boxSize;
+			side = boxSize * boxSize;
+			cells = side * side;
+			allDigits = side == Long.SIZE ? -1L : (1L << side) - 1;
+			rows = new int[cells];
+			cols = new int[cells];
+			boxes = new int[cells];
+			units = new int[3 * side][side];
+			for (int index = 0; index < cells; index++) {
+				int row = getRow(index, boxSize);
+				int col = getCol(index, boxSize);
+				rows[index] = row;
+				cols[index] = col;
+				boxes[index] = getBox(col, row, boxSize);
+				units[row][col] = index;
+				units[side + col][row] = index;
+				units[2 * side + boxes[index]][boxSize * (row % boxSize) + col
+						% boxSize] = index;
+			}
+			sparseMatrix = buildSparseMatrix(boxSize);
+		}
 	}
 }
\ No newline at end of file
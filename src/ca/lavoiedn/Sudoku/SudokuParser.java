@@ -1,11 +1,10 @@
 package ca.lavoiedn.Sudoku;
 
-import java.io.BufferedReader;
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
 
 /**
  * A simple utility class to parse a file for sudoku configurations from a given
@@ -17,6 +16,8 @@ import java.util.ArrayList;
 
 public class SudokuParser {
 
+	public static final String STANDARD_INPUT = "-";
+
 	/**
 	 * Utility method that parses the file at the given file path for sudoku
 	 * boards.
@@ -28,20 +29,29 @@ public class SudokuParser {
 	 *         file.
 	 */
 	public static ArrayList<int[]> parseBoards(String filePath) {
-		File sudokuFile = new File(filePath);
+		return parseBoards(filePath, SudokuBoard.STANDARD_BOX_SIZE);
+	}
+
+	/**
+	 * Utility method that parses the file at the given file path for sudoku
+	 * boards of the given box size.
+	 * 
+	 * @param filePath
+	 *            The path of the file, as a {@link String} containing the
+	 *            sudoku boards.
+	 * @param boxSize
+	 *            The box size of the boards, <code>3</code> for the standard
+	 *            board.
+	 * @return Returns an {@link ArrayList} containing the configurations in the
+	 *         file.
+	 */
+	public static ArrayList<int[]> parseBoards(String filePath, int boxSize) {
 		ArrayList<int[]> sudokuBoards = new ArrayList<int[]>();
-		int[] board;
-		try (BufferedReader fileStream = new BufferedReader(new FileReader(
-				sudokuFile))) {
-			String lineFeed = fileStream.readLine();
-			while (lineFeed != null) {
-				board = new int[81];
-				for (int index = 0; index < lineFeed.length(); index++) {
-					board[index] = Character.getNumericValue(lineFeed
-							.charAt(index));
-				}
+		try (SudokuReader reader = openBoards(filePath, boxSize)) {
+			int[] board = new int[reader.getCellCount()];
+			while (reader.next(board)) {
 				sudokuBoards.add(board);
-				lineFeed = fileStream.readLine();
+				board = new int[reader.getCellCount()];
 			}
 		} catch (FileNotFoundException e) {
 			System.err
@@ -52,6 +62,69 @@ public class SudokuParser {
 		return sudokuBoards;
 	}
 
+	/**
+	 * Opens a {@link ca.lavoiedn.Sudoku.SudokuReader} over the file at the
+	 * given file path, to read its boards one at a time.
+	 * 
+	 * @param filePath
+	 *            The path of the file containing the sudoku boards, or
+	 *            <code>-</code> for the standard input.
+	 * @return Returns a reader over the boards of the file.
+	 * @throws IOException
+	 *             If the file cannot be opened.
+	 */
+	public static SudokuReader openBoards(String filePath) throws IOException {
+		return openBoards(filePath, SudokuBoard.STANDARD_BOX_SIZE);
+	}
+
+	/**
+	 * Opens a {@link ca.lavoiedn.Sudoku.SudokuReader} over the file at the
+	 * given file path, to read its boards of the given box size one at a
+	 * time.
+	 * 
+	 * @param filePath
+	 *            The path of the file containing the sudoku boards, or
+	 *            <code>-</code> for the standard input.
+	 * @param boxSize
+	 *            The box size of the boards, <code>3</code> for the standard
+	 *            board.
+	 * @return Returns a reader over the boards of the file.
+	 * @throws IOException
+	 *             If the file cannot be opened.
+	 */
+	public static SudokuReader openBoards(String filePath, int boxSize)
+			throws IOException {
+		if (STANDARD_INPUT.equals(filePath)) {
+			return new SudokuReader(System.in, boxSize);
+		}
+		return new SudokuReader(filePath, boxSize);
+	}
+
+	/**
+	 * Converts the text file at the given file path to the packed binary
+	 * format of {@link ca.lavoiedn.Sudoku.PackedSudokuWriter}.
+	 * 
+	 * @param filePath
+	 *            The path of the text file, or <code>-</code> for the standard
+	 *            input.
+	 * @param packedPath
+	 *            The path of the packed file to create.
+	 * @return Returns the number of boards converted.
+	 * @throws IOException
+	 *             If a file cannot be read or written.
+	 */
+	public static long packBoards(String filePath, String packedPath)
+			throws IOException {
+		try (SudokuReader reader = openBoards(filePath);
+				PackedSudokuWriter writer = new PackedSudokuWriter(packedPath)) {
+			int[] board = new int[81];
+			while (reader.next(board)) {
+				writer.write(board);
+			}
+			return writer.getBoardCount();
+		}
+	}
+
 	/**
 	 * Randomly chooses a given amount of sudoku layouts from the given file
 	 * path.
@@ -63,17 +136,94 @@ public class SudokuParser {
 	 * @return Returns an <code>ArrayList</code> of the chosen layouts.
 	 */
 	public static ArrayList<int[]> randomBoards(String filePath, int amount) {
-		ArrayList<int[]> sudokuBoards = parseBoards(filePath);
+		return randomBoards(filePath, amount, SudokuBoard.STANDARD_BOX_SIZE,
+				new Random());
+	}
+
+	/**
+	 * Randomly chooses a given amount of sudoku layouts from the given file
+	 * path, the same ones for the same seed.
+	 * 
+	 * @param filePath
+	 *            The path of the file to parse for sudoku layouts.
+	 * @param amount
+	 *            The amount of layouts to choose from the file.
+	 * @param seed
+	 *            The seed of the random choice.
+	 * @return Returns an <code>ArrayList</code> of the chosen layouts.
+	 */
+	public static ArrayList<int[]> randomBoards(String filePath, int amount,
+			long seed) {
+		return randomBoards(filePath, amount, SudokuBoard.STANDARD_BOX_SIZE,
+				new Random(seed));
+	}
+
+	/**
+	 * Randomly chooses a given amount of sudoku layouts of the given box size
+	 * from the given file path, the same ones for the same seed.
+	 * 
+	 * @param filePath
+	 *            The path of the file to parse for sudoku layouts.
+	 * @param amount
+	 *            The amount of layouts to choose from the file.
+	 * @param boxSize
+	 *            The box size of the boards, <code>3</code> for the standard
+	 *            board.
+	 * @param seed
+	 *            The seed of the random choice.
+	 * @return Returns an <code>ArrayList</code> of the chosen layouts.
+	 */
+	public static ArrayList<int[]> randomBoards(String filePath, int amount,
+			int boxSize, long seed) {
+		return randomBoards(filePath, amount, boxSize, new Random(seed));
+	}
+
+	/**
+	 * Chooses the layouts in a single pass over the file, by reservoir
+	 * sampling: the <code>i</code>th board read replaces a random board of
+	 * the reservoir with a probability of <code>amount / i</code>, so only
+	 * the chosen boards are kept in memory.
+	 * 
+	 * @param filePath
+	 *            The path of the file to parse for sudoku layouts.
+	 * @param amount
+	 *            The amount of layouts to choose from the file.
+	 * @param boxSize
+	 *            The box size of the boards.
+	 * @param random
+	 *            The source of the random choice.
+	 * @return Returns an <code>ArrayList</code> of the chosen layouts, in a
+	 *         random order if the file has more than <code>amount</code>
+	 *         layouts, else in the order of the file.
+	 */
+	private static ArrayList<int[]> randomBoards(String filePath, int amount,
+			int boxSize, Random random) {
 		ArrayList<int[]> randomBoards = new ArrayList<int[]>(amount);
-		if (amount > sudokuBoards.size()) {
-			randomBoards = sudokuBoards;
-		} else {
-			for (int i = 0; i < amount && sudokuBoards.size() > 0; i++) {
-				int[] board = sudokuBoards
-						.get((int) (Math.random() * sudokuBoards.size()));
-				randomBoards.add(board);
-				sudokuBoards.remove(board);
+		long seen = 0;
+		try (SudokuReader reader = openBoards(filePath, boxSize)) {
+			int[] board = new int[reader.getCellCount()];
+			while (reader.next(board)) {
+				seen++;
+				if (randomBoards.size() < amount) {
+					randomBoards.add(board);
+					board = new int[reader.getCellCount()];
+				} else {
+					long pick = (long) (random.nextDouble() * seen);
+					if (pick < amount) {
+						// Reuses the replaced array for the following boards.
+						int[] replaced = randomBoards.set((int) pick, board);
+						board = replaced;
+					}
+				}
 			}
+		} catch (FileNotFoundException e) {
+			System.err
+					.println("The file: " + filePath + " could not be found.");
+		} catch (IOException e) {
+			System.err.println(e);
+		}
+		if (seen > amount) {
+			Collections.shuffle(randomBoards, random);
 		}
 		return randomBoards;
 	}
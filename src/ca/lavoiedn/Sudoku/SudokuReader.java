@@ -0,0 +1,326 @@
+package ca.lavoiedn.Sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads sudoku boards one at a time from a file or a stream, with one board
+ * per line. The digits <code>1</code> to <code>9</code> give the value of a
+ * cell, while <code>0</code> and <code>.</code> mark an empty cell; the cells
+ * missing at the end of a short line are empty, and blank lines are skipped.
+ * 
+ * Larger boards are read for a given box size. Up to 35 digits, the values
+ * above 9 are the letters <code>A</code> to <code>Z</code>, in either case,
+ * so a 16 by 16 board has one character per cell from <code>1</code> to
+ * <code>G</code>. Beyond that, the cells are decimal numbers separated by
+ * spaces, tabs or commas, with <code>0</code> or <code>.</code> for an empty
+ * cell.
+ * 
+ * A file is memory-mapped a window at a time, and a stream is read through a
+ * small buffer, so the memory used does not depend on the size of the input.
+ * The bytes are decoded directly into the board given by the caller.
+ * 
+ * @author lavoiedn
+ * 
+ */
+
+public class SudokuReader implements Closeable {
+
+	private static final int MAPPED_WINDOW_SIZE = 1 << 26;
+	private static final int STREAM_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The largest number of digits written with one character per cell.
+	 */
+	static final int MAX_SYMBOLS = 35;
+
+	private final FileChannel file;
+	private final ReadableByteChannel stream;
+	private ByteBuffer buffer;
+	private final int side;
+	private final int cells;
+	private long position;
+	private long line = 1;
+
+	/**
+	 * Constructor for a reader over the file at the given path.
+	 * 
+	 * @param filePath
+	 *            The path of the file containing the sudoku boards.
+	 * @throws IOException
+	 *             If the file cannot be opened.
+	 */
+	public SudokuReader(String filePath) throws IOException {
+		this(filePath, SudokuBoard.STANDARD_BOX_SIZE);
+	}
+
+	/**
+	 * Constructor for a reader over the file at the given path, holding
+	 * boards of the given box size.
+	 * 
+	 * @param filePath
+	 *            The path of the file containing the sudoku boards.
+	 * @param boxSize
+	 *            The box size of the boards.
+	 * @throws IOException
+	 *             If the file cannot be opened.
+	 */
+	@SuppressWarnings("resource")
+	public SudokuReader(String filePath, int boxSize) throws IOException {
+		file = new RandomAccessFile(filePath, "r").getChannel();
+		stream = null;
+		buffer = ByteBuffer.allocate(0);
+		side = boxSize * boxSize;
+		cells = side * side;
+	}
+
+	/**
+	 * Constructor for a reader over the given stream, such as
+	 * <code>System.in</code>.
+	 * 
+	 * @param in
+	 *            The stream containing the sudoku boards.
+	 */
+	public SudokuReader(InputStream in) {
+		this(in, SudokuBoard.STANDARD_BOX_SIZE);
+	}
+
+	/**
+	 * Constructor for a reader over the given stream, holding boards of the
+	 * given box size.
+	 * 
+	 * @param in
+	 *            The stream containing the sudoku boards.
+	 * @param boxSize
+	 *            The box size of the boards.
+	 */
+	public SudokuReader(InputStream in, int boxSize) {
+		file = null;
+		stream = Channels.newChannel(in);
+		buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+		buffer.flip();
+		side = boxSize * boxSize;
+		cells = side * side;
+	}
+
+	/**
+	 * Reads the next board into the given array.
+	 * 
+	 * @param board
+	 *            An array of 81 integer, or of as many as the boards have
+	 *            cells, overwritten with the next board.
+	 * @return <code>true</code> if a board was read, or <code>false</code> at
+	 *         the end of the input.
+	 * @throws IOException
+	 *             If the input cannot be read or contains an invalid board.
+	 */
+	public boolean next(int[] board) throws IOException {
+		if (side > MAX_SYMBOLS) {
+			return nextNumbers(board);
+		}
+		int cell = 0;
+		boolean started = false;
+		while (buffer.hasRemaining() || fill()) {
+			byte b = buffer.get();
+			if (b == '\n') {
+				line++;
+				if (started) {
+					Arrays.fill(board, cell, cells, 0);
+					return true;
+				}
+			} else if (b != '\r') {
+				started = true;
+				int value;
+				if (b >= '0' && b <= '9') {
+					value = b - '0';
+				} else if (b == '.') {
+					value = 0;
+				} else if (b >= 'A' && b <= 'Z') {
+					value = b - 'A' + 10;
+				} else if (b >= 'a' && b <= 'z') {
+					value = b - 'a' + 10;
+				} else {
+					value = -1;
+				}
+				if (cell == cells) {
+					throw new IOException("Line " + line + " has more than "
+							+ cells + " cells.");
+				} else if (value < 0 || value > side) {
+					throw new IOException("Invalid cell '" + (char) b
+							+ "' on line " + line + ".");
+				}
+				board[cell++] = value;
+			}
+		}
+		if (started) {
+			Arrays.fill(board, cell, cells, 0);
+		}
+		return started;
+	}
+
+	/**
+	 * Reads the next board into the given array, from a line of separated
+	 * numbers.
+	 * 
+	 * @param board
+	 *            An array of as many integer as the boards have cells,
+	 *            overwritten with the next board.
+	 * @return <code>true</code> if a board was read, or <code>false</code> at
+	 *         the end of the input.
+	 * @throws IOException
+	 *             If the input cannot be read or contains an invalid board.
+	 */
+	private boolean nextNumbers(int[] board) throws IOException {
+		int cell = 0;
+		int value = -1;
+		boolean started = false;
+		while (buffer.hasRemaining() || fill()) {
+			byte b = buffer.get();
+			if (b >= '0' && b <= '9') {
+				value = (value < 0 ? 0 : value * 10) + b - '0';
+				started = true;
+			} else if (b == '.' && value < 0) {
+				value = 0;
+				started = true;
+			} else if (b == '\n' || b == '\r' || b == ' ' || b == '\t'
+					|| b == ',') {
+				if (value >= 0) {
+					if (cell == cells) {
+						throw new IOException("Line " + line
+								+ " has more than " + cells + " cells.");
+					} else if (value > side) {
+						throw new IOException("Invalid cell " + value
+								+ " on line " + line + ".");
+					}
+					board[cell++] = value;
+					value = -1;
+				}
+				if (b == '\n') {
+					line++;
+					if (started) {
+						Arrays.fill(board, cell, cells, 0);
+						return true;
+					}
+				}
+			} else {
+				throw new IOException("Invalid cell '" + (char) b
+						+ "' on line " + line + ".");
+			}
+		}
+		if (value >= 0) {
+			if (cell == cells || value > side) {
+				throw new IOException("Invalid cell " + value + " on line "
+						+ line + ".");
+			}
+			board[cell++] = value;
+		}
+		if (started) {
+			Arrays.fill(board, cell, cells, 0);
+		}
+		return started;
+	}
+
+	/**
+	 * Returns the number of cells of the boards of this reader.
+	 * 
+	 * @return The number of cells, <code>81</code> for the standard board.
+	 */
+	public int getCellCount() {
+		return cells;
+	}
+
+	/**
+	 * Returns an iterator over the remaining boards, giving a new array for
+	 * each board. An error while reading is thrown as an
+	 * <code>IllegalStateException</code>.
+	 * 
+	 * @return An iterator over the boards.
+	 */
+	public Iterator<int[]> iterator() {
+		return new Iterator<int[]>() {
+
+			private int[] next;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null) {
+					int[] board = new int[cells];
+					try {
+						if (SudokuReader.this.next(board)) {
+							next = board;
+						}
+					} catch (IOException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+				return next != null;
+			}
+
+			@Override
+			public int[] next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				int[] board = next;
+				next = null;
+				return board;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Makes the following bytes of the input available in the buffer.
+	 * 
+	 * @return <code>false</code> at the end of the input, else
+	 *         <code>true</code>.
+	 * @throws IOException
+	 *             If the input cannot be read.
+	 */
+	private boolean fill() throws IOException {
+		if (file != null) {
+			long remaining = file.size() - position;
+			if (remaining <= 0) {
+				return false;
+			}
+			long length = Math.min(remaining, MAPPED_WINDOW_SIZE);
+			buffer = file.map(FileChannel.MapMode.READ_ONLY, position, length);
+			position += length;
+			return true;
+		}
+		buffer.clear();
+		int read;
+		do {
+			read = stream.read(buffer);
+		} while (read == 0);
+		buffer.flip();
+		return read > 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (file != null) {
+			file.close();
+		} else {
+			stream.close();
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package ca.lavoiedn.Sudoku;
+
+import java.util.List;
+
+import ca.lavoiedn.DLX.ExactCoverAction;
+import ca.lavoiedn.DLX.SearchMetrics;
+
+/**
+ * The outcome of solving one board of a batch.
+ * 
+ * @author lavoiedn
+ * 
+ */
+
+public class SudokuResult {
+
+	private final long index;
+	private final int[] puzzle;
+	private final SudokuBoard solution;
+	private final List<ExactCoverAction> actions;
+	private final SearchMetrics metrics;
+	private final boolean searched;
+	private final int propagatedCells;
+	private final long propagationTime;
+
+	/**
+	 * <code>SudokuResult</code> constructor for a board solved by the search
+	 * alone.
+	 * 
+	 * @param index
+	 *            The position of the board in the batch.
+	 * @param puzzle
+	 *            The layout that was solved.
+	 * @param solution
+	 *            The board with the actions of the solution played on it.
+	 * @param actions
+	 *            The actions of the solution found by the search, empty if
+	 *            there is none or if the search was not needed.
+	 * @param metrics
+	 *            The metrics of the search, which are kept as they are.
+	 */
+	public SudokuResult(long index, int[] puzzle, SudokuBoard solution,
+			List<ExactCoverAction> actions, SearchMetrics metrics) {
+		this(index, puzzle, solution, actions, metrics, true, 0, 0);
+	}
+
+	/**
+	 * <code>SudokuResult</code> constructor for a board that went through
+	 * propagation before the search.
+	 * 
+	 * @param index
+	 *            The position of the board in the batch.
+	 * @param puzzle
+	 *            The layout that was solved.
+	 * @param solution
+	 *            The board with the actions of the solution played on it.
+	 * @param actions
+	 *            The actions of the solution found by the search, empty if
+	 *            there is none or if the search was not needed.
+	 * @param metrics
+	 *            The metrics of the search, which are kept as they are.
+	 * @param searched
+	 *            <code>true</code> if the search was run after the
+	 *            propagation, else <code>false</code>.
+	 * @param propagatedCells
+	 *            The number of cells filled by propagation.
+	 * @param propagationTime
+	 *            The time spent on propagation, in nanoseconds.
+	 */
+	public SudokuResult(long index, int[] puzzle, SudokuBoard solution,
+			List<ExactCoverAction> actions, SearchMetrics metrics,
+			boolean searched, int propagatedCells, long propagationTime) {
+		this.index = index;
+		this.puzzle = puzzle;
+		this.solution = solution;
+		this.actions = actions;
+		this.metrics = metrics;
+		this.searched = searched;
+		this.propagatedCells = propagatedCells;
+		this.propagationTime = propagationTime;
+	}
+
+	/**
+	 * Returns the position of the board in the batch.
+	 * 
+	 * @return The index of the board, starting at <code>0</code>.
+	 */
+	public long getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the layout that was solved.
+	 * 
+	 * @return The puzzle, as an array of 81 integer on the standard board.
+	 */
+	public int[] getPuzzle() {
+		return puzzle;
+	}
+
+	/**
+	 * Returns the solved board.
+	 * 
+	 * @return The board with the solution played on it.
+	 */
+	public SudokuBoard getSolution() {
+		return solution;
+	}
+
+	/**
+	 * Returns the actions of the solution.
+	 * 
+	 * @return The actions, empty if the board has no solution or was solved
+	 *         by propagation alone.
+	 */
+	public List<ExactCoverAction> getActions() {
+		return actions;
+	}
+
+	/**
+	 * Returns whether or not a solution was found: the board is full and its
+	 * givens do not conflict.
+	 * 
+	 * @return <code>true</code> if the board was solved, else
+	 *         <code>false</code>.
+	 */
+	public boolean isSolved() {
+		return solution.isSolved();
+	}
+
+	/**
+	 * Returns whether or not the search was run. When it was not, the board
+	 * was solved, or found to have no solution, by propagation alone, and the
+	 * metrics of the search are empty.
+	 * 
+	 * @return <code>true</code> if the search was run, else
+	 *         <code>false</code>.
+	 */
+	public boolean isSearched() {
+		return searched;
+	}
+
+	/**
+	 * Returns the number of cells filled by propagation before the search.
+	 * 
+	 * @return The number of propagated cells.
+	 */
+	public int getPropagatedCells() {
+		return propagatedCells;
+	}
+
+	/**
+	 * Returns the time spent on propagation before the search.
+	 * 
+	 * @return The propagation time, in nanoseconds.
+	 */
+	public long getPropagationTime() {
+		return propagationTime;
+	}
+
+	/**
+	 * Returns the metrics of the search.
+	 * 
+	 * @return The {@link ca.lavoiedn.DLX.SearchMetrics} of the search.
+	 */
+	public SearchMetrics getMetrics() {
+		return metrics;
+	}
+}
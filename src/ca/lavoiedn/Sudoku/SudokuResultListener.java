@@ -0,0 +1,20 @@
+package ca.lavoiedn.Sudoku;
+
+/**
+ * Receives the results of a {@link ca.lavoiedn.Sudoku.SudokuBatchSolver}, one
+ * at a time and in the order of the boards.
+ * 
+ * @author lavoiedn
+ * 
+ */
+
+public interface SudokuResultListener {
+
+	/**
+	 * Called once for each board of the batch.
+	 * 
+	 * @param result
+	 *            The outcome of solving the board.
+	 */
+	void boardSolved(SudokuResult result);
+}
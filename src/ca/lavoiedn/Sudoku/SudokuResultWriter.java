@@ -0,0 +1,280 @@
+package ca.lavoiedn.Sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import ca.lavoiedn.DLX.SearchMetrics;
+
+/**
+ * Writes the results of a batch in a compact text format, through a reusable
+ * byte buffer, so printing costs little next to the search.
+ * 
+ * @author lavoiedn
+ * 
+ */
+
+public class SudokuResultWriter implements SudokuResultListener, Closeable {
+
+	/**
+	 * The formats of the output.
+	 */
+	public enum Format {
+		/**
+		 * One line of 81 digits per board, the solution, or a line of empty
+		 * cells if there is none. Larger boards are written the way
+		 * {@link ca.lavoiedn.Sudoku.SudokuReader} reads them.
+		 */
+		SOLUTION,
+		/**
+		 * A CSV file with a header line, then the index, the puzzle, the
+		 * solution, the propagation and the metrics of each board, with times
+		 * in nanoseconds.
+		 */
+		CSV
+	}
+
+	private static final String CSV_HEADER = "index,puzzle,solution,propagatedcells,propagationtime,buildtime,initialstatetime,searchtime,verificationtime,nodesexplored,updates,maxdepth,allocatedbytes\n";
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int MAX_LINE_SIZE = 1024;
+	private static final int MAX_CELL_SIZE = 3;
+
+	private final WritableByteChannel channel;
+	private final OutputStream stream;
+	private final Format format;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final byte[] digits = new byte[20];
+	private boolean headerWritten;
+	private IOException failure;
+
+	/**
+	 * Constructor for a writer creating, or replacing, the file at the given
+	 * path.
+	 * 
+	 * @param filePath
+	 *            The path of the output file.
+	 * @param format
+	 *            The format of the output.
+	 * @throws IOException
+	 *             If the file cannot be created.
+	 */
+	public SudokuResultWriter(String filePath, Format format)
+			throws IOException {
+		this(FileChannel.open(Paths.get(filePath), StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING),
+				null, format);
+	}
+
+	/**
+	 * Constructor for a writer over the given stream, such as
+	 * <code>System.out</code>. The stream belongs to the caller, and is only
+	 * flushed when this writer is closed.
+	 * 
+	 * @param out
+	 *            The stream to write to.
+	 * @param format
+	 *            The format of the output.
+	 */
+	public SudokuResultWriter(OutputStream out, Format format) {
+		this(Channels.newChannel(out), out, format);
+	}
+
+	private SudokuResultWriter(WritableByteChannel channel,
+			OutputStream stream, Format format) {
+		this.channel = channel;
+		this.stream = stream;
+		this.format = format;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * ca.lavoiedn.Sudoku.SudokuResultListener#boardSolved(ca.lavoiedn.Sudoku
+	 * .SudokuResult)
+	 */
+	@Override
+	public void boardSolved(SudokuResult result) {
+		if (failure != null) {
+			return;
+		}
+		try {
+			write(result);
+		} catch (IOException e) {
+			if (failure == null) {
+				failure = e;
+			}
+		}
+	}
+
+	/**
+	 * Writes a result in the format of this writer.
+	 * 
+	 * @param result
+	 *            The {@link ca.lavoiedn.Sudoku.SudokuResult} to write.
+	 * @throws IOException
+	 *             If the output cannot be written.
+	 */
+	public void write(SudokuResult result) throws IOException {
+		int[] puzzle = result.getPuzzle();
+		if (buffer.remaining() < MAX_LINE_SIZE + 2 * MAX_CELL_SIZE
+				* puzzle.length) {
+			flush();
+		}
+		int side = result.getSolution().getSide();
+		if (format == Format.CSV && !headerWritten) {
+			buffer.put(CSV_HEADER.getBytes("US-ASCII"));
+			headerWritten = true;
+		}
+		if (format == Format.CSV) {
+			putLong(result.getIndex());
+			buffer.put((byte) ',');
+			putBoard(puzzle, side);
+			buffer.put((byte) ',');
+			if (result.isSolved()) {
+				putSolution(result.getSolution());
+			}
+			buffer.put((byte) ',');
+			putLong(result.getPropagatedCells());
+			buffer.put((byte) ',');
+			putLong(result.getPropagationTime());
+			SearchMetrics metrics = result.getMetrics();
+			for (SearchMetrics.Phase phase : SearchMetrics.Phase.values()) {
+				buffer.put((byte) ',');
+				putLong(metrics.getTime(phase));
+			}
+			buffer.put((byte) ',');
+			putLong(metrics.getNodesExplored());
+			buffer.put((byte) ',');
+			putLong(metrics.getUpdates());
+			buffer.put((byte) ',');
+			putLong(metrics.getMaxDepth());
+			buffer.put((byte) ',');
+			putLong(metrics.getAllocatedBytes());
+		} else if (result.isSolved()) {
+			putSolution(result.getSolution());
+		} else {
+			for (int cell = 0; cell < puzzle.length; cell++) {
+				putCell(cell, 0, side);
+			}
+		}
+		buffer.put((byte) '\n');
+	}
+
+	/**
+	 * Puts the digits of a board in the buffer.
+	 * 
+	 * @param board
+	 *            The cells of the board.
+	 * @param side
+	 *            The number of digits of the board.
+	 */
+	private void putBoard(int[] board, int side) {
+		for (int cell = 0; cell < board.length; cell++) {
+			putCell(cell, board[cell], side);
+		}
+	}
+
+	/**
+	 * Puts the digits of a solved board in the buffer.
+	 * 
+	 * @param solution
+	 *            The solved board.
+	 */
+	private void putSolution(SudokuBoard solution) {
+		int side = solution.getSide();
+		for (int cell = 0; cell < side * side; cell++) {
+			putCell(cell, solution.getValue(cell), side);
+		}
+	}
+
+	/**
+	 * Puts the digit of a cell in the buffer: a single character up to 35
+	 * digits, or else a number after a space, except for the first cell.
+	 * 
+	 * @param cell
+	 *            The index of the cell.
+	 * @param value
+	 *            The digit of the cell, <code>0</code> if it is empty.
+	 * @param side
+	 *            The number of digits of the board.
+	 */
+	private void putCell(int cell, int value, int side) {
+		if (side <= SudokuReader.MAX_SYMBOLS) {
+			buffer.put((byte) (value < 10 ? '0' + value : 'A' + value - 10));
+		} else {
+			if (cell > 0) {
+				buffer.put((byte) ' ');
+			}
+			putLong(value);
+		}
+	}
+
+	/**
+	 * Puts the decimal digits of a number in the buffer.
+	 * 
+	 * @param value
+	 *            The number to write.
+	 */
+	private void putLong(long value) {
+		if (value < 0) {
+			for (char c : Long.toString(value).toCharArray()) {
+				buffer.put((byte) c);
+			}
+			return;
+		}
+		int length = 0;
+		do {
+			digits[length++] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		while (length > 0) {
+			buffer.put(digits[--length]);
+		}
+	}
+
+	/**
+	 * Writes the buffered output.
+	 * 
+	 * @throws IOException
+	 *             If the output cannot be written.
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Writes the buffered output and closes this writer, along with the file
+	 * it opened. A stream given to this writer is flushed, but left open.
+	 * 
+	 * @throws IOException
+	 *             If the output could not be written, now or while a result
+	 *             was given to <code>boardSolved</code>.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+			if (stream != null) {
+				stream.flush();
+			}
+		} finally {
+			if (stream == null) {
+				channel.close();
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}